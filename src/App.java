@@ -1,8 +1,54 @@
+import java.io.File;
+import java.io.IOException;
 import javax.swing.SwingUtilities;
+import controller.BatchRunner;
+import controller.RouteServer;
+import model.Graph;
+import model.GraphIO;
 import view.MainFrame;
 
 public class App {
     public static void main(String[] args) {
+        // java App --convert entrada salida   (texto <-> binario según la extensión de salida)
+        if (args.length == 3 && args[0].equals("--convert")) {
+            GraphIO.LoadResult lr = GraphIO.convert(new File(args[1]), new File(args[2]));
+            System.out.println(lr.ok ? "Convertido: " + args[2] : lr.message);
+            if (!lr.ok) System.exit(1);
+            return;
+        }
+        // java App --batch mapa.cfg pares.txt salida.csv [algoritmo] [hilos]   (sin ventana)
+        if (args.length >= 4 && args[0].equals("--batch")) {
+            String algorithm = args.length > 4 ? args[4] : "astar";
+            int threads = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+            try {
+                System.out.println(BatchRunner.run(new File(args[1]), new File(args[2]), new File(args[3]), algorithm, threads));
+            } catch (IOException ex) {
+                System.err.println("❌ " + ex.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        // java App --serve mapa.cfg [puerto] [peticiones simultáneas]   (HTTP en 127.0.0.1)
+        if (args.length >= 2 && args[0].equals("--serve")) {
+            int port = args.length > 2 ? Integer.parseInt(args[2]) : 8080;
+            int limit = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            Graph g = new Graph();
+            GraphIO.LoadResult lr = GraphIO.load(new File(args[1]), g);
+            if (!lr.ok) {
+                System.err.println("❌ " + lr.message);
+                System.exit(1);
+            }
+            try {
+                RouteServer server = new RouteServer(g, new File(args[1]), limit);
+                port = server.start(port);
+                Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+                System.out.println("Escuchando en http://127.0.0.1:" + port + " | " + g.getStats());
+            } catch (IOException ex) {
+                System.err.println("❌ " + ex.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
         SwingUtilities.invokeLater(MainFrame::new);
     }
 }
\ No newline at end of file
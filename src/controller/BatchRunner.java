@@ -0,0 +1,149 @@
+package controller;
+
+import model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Modo sin ventana para lotes de consultas (trabajos nocturnos):
+//   java App --batch mapa.cfg pares.txt salida.csv [algoritmo] [hilos]
+// Cada línea de pares.txt es "inicio destino" ('#' = comentario). Las consultas corren en
+// paralelo sobre una única instantánea inmutable del mapa y los resultados se escriben en el
+// orden de entrada. Corren a la vez como mucho tantas consultas como hilos (cada una reserva
+// arreglos del tamaño del mapa) y WINDOW acota las que esperan a escribirse en orden, así la
+// memoria no crece con el tamaño del archivo de pares. Si el mapa tiene un .gmap al día se consulta directamente
+// sobre el archivo mapeado (ver GraphIO.openForRouting).
+public final class BatchRunner {
+
+    private static final int WINDOW = 1024;
+
+    public static final class Summary {
+        public final int queries, found, failed;
+        public final long elapsedNanos;
+
+        Summary(int queries, int found, int failed, long elapsedNanos) {
+            this.queries = queries;
+            this.found = found;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            double s = elapsedNanos / 1e9;
+            return String.format(Locale.ROOT, "%d consultas | %d con ruta | %d con error | %.2f s | %.0f consultas/s",
+                    queries, found, failed, s, s > 0 ? queries / s : 0);
+        }
+    }
+
+    private BatchRunner() { }
+
+    // hilos <= 0: uno por núcleo; las consultas usan solo CPU, más hilos no aceleran
+    public static Summary run(File map, File pairs, File out, String algorithm, int threads) throws IOException {
+        RoutingGraph cg = GraphIO.openForRouting(map);
+        // los preprocesos se hacen una vez, antes de repartir las consultas
+        Landmarks landmarks = algorithm.equalsIgnoreCase("alt") ? landmarksFor(cg, GraphIO.landmarksFile(map)) : null;
+        Searches.Search search = Searches.forName(algorithm, snapshot -> landmarks);
+        if (search == null) throw new IOException("Algoritmo desconocido: " + algorithm + " (" + Searches.NAMES + ")");
+        if (algorithm.equalsIgnoreCase("ch")) cg.hierarchy();
+
+        long t0 = System.nanoTime();
+        int queries = 0;
+        int[] tally = new int[2];       // con ruta, con error
+        ExecutorService pool = Searches.platformThreads(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), "lote");
+        ArrayDeque<Future<String[]>> window = new ArrayDeque<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(pairs), StandardCharsets.UTF_8));
+             PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(out), StandardCharsets.UTF_8)))) {
+            pw.println("start,end,found,length,expanded,nanos,path");
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] p = line.split("\\s+");
+                if (p.length < 2) throw new IOException("Línea " + lineNo + " de " + pairs.getName() + ": se esperaba 'inicio destino'");
+                String s = p[0], t = p[1];
+                if (window.size() == WINDOW) write(pw, take(window.poll()), tally);
+                window.add(pool.submit(() -> query(cg, search, s, t)));
+                queries++;
+            }
+            while (!window.isEmpty()) write(pw, take(window.poll()), tally);
+            if (pw.checkError()) throw new IOException("Error al escribir " + out.getPath());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Summary(queries, tally[0], tally[1], System.nanoTime() - t0);
+    }
+
+    private static String[] query(RoutingGraph cg, Searches.Search search, String s, String t) {
+        if (cg.indexOf(s) < 0 || cg.indexOf(t) < 0)
+            return new String[] { s, t, "error", "", "0", "0", "nodo inexistente" };
+        long t0 = System.nanoTime();
+        SearchResult r = search.run(cg, s, t);
+        long nanos = System.nanoTime() - t0;
+        String length = r.hasPath() ? String.format(Locale.ROOT, "%.3f", cg.pathLength(r.getPath())) : "";
+        return new String[] { s, t, String.valueOf(r.hasPath()), length,
+                String.valueOf(r.getVisitedCount()), String.valueOf(nanos), String.join(" ", r.getPath()) };
+    }
+
+    private static void write(PrintWriter pw, String[] row, int[] tally) {
+        if (row[2].equals("true")) tally[0]++;
+        else if (row[2].equals("error")) tally[1]++;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) sb.append(',');
+            csv(sb, row[i]);
+        }
+        pw.println(sb);
+    }
+
+    // Los ids pueden tener comas o comillas: esos campos van entre comillas y las comillas
+    // internas se duplican (RFC 4180)
+    private static void csv(StringBuilder sb, String field) {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            sb.append(field);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static String[] take(Future<String[]> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Lote interrumpido");
+        } catch (ExecutionException ex) {
+            throw new IOException("Error en una consulta: " + ex.getCause(), ex.getCause());
+        }
+    }
+
+    // Reutiliza los landmarks guardados junto al mapa si corresponden a este grafo
+    private static Landmarks landmarksFor(RoutingGraph cg, File altFile) {
+        Landmarks lm = GraphIO.loadLandmarks(altFile);
+        if (lm == null || !lm.matches(cg)) {
+            lm = Landmarks.compute(cg, Landmarks.DEFAULT_COUNT);
+            GraphIO.saveLandmarks(altFile, lm);
+        }
+        return lm;
+    }
+}
@@ -4,15 +4,33 @@ import model.*;
 import view.MapPanel;
 import view.Toolbar;
 import view.VisualizationMode;
+import javax.swing.SwingUtilities;
 import java.awt.Cursor;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.awt.event.*;
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 public class MapController {
 
+    // Rastreo paso a paso del DFS en consola, activable con -Ddfs.trace=true
+    private static final boolean TRACE_DFS = Boolean.getBoolean("dfs.trace");
+    private static final int BLOCK_REGION_RADIUS = 60;
+    // Entradas del diario a partir de las cuales guardar reescribe el mapa completo
+    private static final int COMPACT_AFTER = 2000;
+    // A partir de este tamaño la exploración se dibuja mientras avanza, por lotes, en lugar
+    // de guardar en el resultado la lista de todos los nodos visitados
+    private static final int STREAM_NODES = 50_000;
+    private static final long LIVE_PUBLISH_NANOS = TimeUnit.MILLISECONDS.toNanos(40);
+
     private final Graph graph;
     private final MapPanel view;
     private Toolbar toolbar;
@@ -20,6 +38,39 @@ public class MapController {
     private String firstNodeToConnect = null;
     private String selectedId = null;
     private int dragOffsetX = 0, dragOffsetY = 0;
+    private File mapFile = new File("data/mapa.cfg");
+    private volatile Landmarks landmarks = null;    // se calcula en el hilo de búsquedas
+    private final RouteCache routeCache = new RouteCache(64);
+    private boolean autoReroute = false;
+    private DynamicRouter router = null;
+    // Ediciones desde el último guardado; null si el mapa aún no tiene instantánea en disco
+    private GraphJournal journal = null;
+    private String savedImagePath = null;
+    private boolean dragged = false;
+
+    // Las búsquedas corren en un hilo aparte sobre una instantánea inmutable del grafo,
+    // así la ventana no se congela. Una consulta nueva cancela la anterior y solo se
+    // publica (en el hilo de Swing) el resultado de la última generación.
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread th = new Thread(r, "busquedas");
+        th.setDaemon(true);
+        return th;
+    });
+    private Future<?> pendingSearch = null;
+    private volatile long searchGeneration = 0;    // la leen también los oyentes de exploración
+
+    // Búsqueda sobre una instantánea: (grafo, inicio, destino, oyente o null) -> resultado
+    @FunctionalInterface
+    private interface Search {
+        SearchResult run(CompactGraph cg, String start, String end, ExplorationListener listener);
+    }
+
+    // Preproceso de una instantánea que se hace antes de medir la consulta (jerarquía,
+    // landmarks); devuelve false si ya estaba hecho
+    @FunctionalInterface
+    private interface Preprocess {
+        boolean run(CompactGraph cg);
+    }
 
     public MapController(Graph graph, MapPanel view) {
         this.graph = graph;
@@ -41,7 +92,10 @@ public class MapController {
                     case CONNECT -> handleConnect(e.getX(), e.getY());
                     case SET_START -> handleSetStart(e.getX(), e.getY());
                     case SET_END -> handleSetEnd(e.getX(), e.getY());
-                    case BLOCK -> handleBlock(e.getX(), e.getY());
+                    case BLOCK -> {
+                        if (e.isShiftDown()) handleBlockRegion(e.getX(), e.getY(), !e.isControlDown());
+                        else handleBlock(e.getX(), e.getY());
+                    }
                     case SELECT -> {
                     }
                 }
@@ -54,6 +108,7 @@ public class MapController {
                 var near = graph.encontrarIdNodoCercano(e.getX(), e.getY(), 10);
                 if (near.isPresent()) {
                     selectedId = near.get();
+                    dragged = false;
                     Node n = graph.getNode(selectedId);
                     dragOffsetX = e.getX() - n.x;
                     dragOffsetY = e.getY() - n.y;
@@ -67,7 +122,13 @@ public class MapController {
             public void mouseReleased(MouseEvent e) {
                 if (currentTool != Toolbar.Tool.SELECT)
                     return;
+                // al diario solo va la posición final del arrastre
+                if (dragged && selectedId != null && journal != null) {
+                    Node n = graph.getNode(selectedId);
+                    if (n != null) journal.moveNode(n.id, n.x, n.y);
+                }
                 selectedId = null;
+                dragged = false;
                 view.setCursor(Cursor.getDefaultCursor());
             }
 
@@ -80,10 +141,10 @@ public class MapController {
                     return;
                 Node n = graph.getNode(selectedId);
                 if (n != null) {
-                    n.x = e.getX() - dragOffsetX;
-                    n.y = e.getY() - dragOffsetY;
-                    n.x = Math.max(0, Math.min(n.x, view.getWidth()));
-                    n.y = Math.max(0, Math.min(n.y, view.getHeight()));
+                    int x = Math.max(0, Math.min(e.getX() - dragOffsetX, view.getWidth()));
+                    int y = Math.max(0, Math.min(e.getY() - dragOffsetY, view.getHeight()));
+                    graph.moveNode(selectedId, x, y);
+                    dragged = true;
                     view.setStatusHint("Moviendo " + selectedId + " a (" + n.x + "," + n.y + ")");
                     view.repaint();
                 }
@@ -94,7 +155,9 @@ public class MapController {
 
     private void handleAddNode(int x, int y) {
         String id = nextNodeId();
-        graph.addNode(new Node(id, x, y));
+        Node n = new Node(id, x, y);
+        graph.addNode(n);
+        if (journal != null) journal.addNode(n);
         view.setStatusHint("Nodo " + id + " agregado en (" + x + "," + y + ")");
         view.repaint();
     }
@@ -112,6 +175,7 @@ public class MapController {
         } else {
             if (!firstNodeToConnect.equals(id)) {
                 graph.connect(firstNodeToConnect, id);
+                if (journal != null) journal.connect(firstNodeToConnect, id);
                 view.setStatusHint("Conectados: " + firstNodeToConnect + " - " + id);
             }
             firstNodeToConnect = null;
@@ -123,7 +187,9 @@ public class MapController {
         Optional<String> near = graph.encontrarIdNodoCercano(x, y, 10);
         if (near.isPresent()) {
             graph.setStart(near.get());
+            if (journal != null) journal.setStart(near.get());
             view.setStatusHint("Inicio (A): " + near.get());
+            reroute();
             view.repaint();
         } else {
             view.setStatusHint("Haz click cerca de un nodo para fijar Inicio (A).");
@@ -134,7 +200,9 @@ public class MapController {
         Optional<String> near = graph.encontrarIdNodoCercano(x, y, 10);
         if (near.isPresent()) {
             graph.setEnd(near.get());
+            if (journal != null) journal.setEnd(near.get());
             view.setStatusHint("Destino (B): " + near.get());
+            reroute();
             view.repaint();
         } else {
             view.setStatusHint("Haz click cerca de un nodo para fijar Destino (B).");
@@ -146,14 +214,30 @@ public class MapController {
         if (near.isPresent()) {
             String id = near.get();
             graph.toggleBlocked(id);
-            Node n = graph.getNode(id);
-            view.setStatusHint("Nodo " + id + (n.blocked ? " bloqueado ⛔" : " desbloqueado ✅"));
+            boolean blocked = graph.isBlocked(id);
+            if (journal != null) journal.setBlocked(id, blocked);
+            view.setStatusHint("Nodo " + id + (blocked ? " bloqueado ⛔" : " desbloqueado ✅"));
+            if (router != null) router.setBlocked(id, blocked);
+            reroute();
             view.repaint();
         } else {
             view.setStatusHint("Haz click cerca de un nodo para bloquear/desbloquear.");
         }
     }
 
+    // Shift+click bloquea toda la zona; Ctrl+Shift+click la desbloquea
+    private void handleBlockRegion(int x, int y, boolean block) {
+        List<String> changed = graph.setBlockedInRadius(x, y, BLOCK_REGION_RADIUS, block);
+        if (journal != null) journal.setBlocked(changed, block);
+        if (router != null) {
+            for (String id : changed) router.setBlocked(id, block);
+        }
+        view.setStatusHint(changed.size() + " nodos " + (block ? "bloqueados ⛔" : "desbloqueados ✅")
+                + " en la zona");
+        if (!changed.isEmpty()) reroute();
+        view.repaint();
+    }
+
     private String nextNodeId() {
         int i = graph.getNodes().size() + 1;
         String id;
@@ -179,7 +263,7 @@ public class MapController {
             case SELECT -> "Seleccionar (arrastra para mover nodos)";
             case ADD_NODE -> "Click en el mapa para agregar un nuevo nodo";
             case CONNECT -> "Click en nodo 1, luego en nodo 2 para conectar";
-            case BLOCK -> "Click en un nodo para bloquearlo/desbloquearlo";
+            case BLOCK -> "Click: bloquear/desbloquear nodo | Shift+click: bloquear zona | Ctrl+Shift+click: desbloquear zona";
             case SET_START -> "Click en un nodo para marcarlo como Inicio (A)";
             case SET_END -> "Click en un nodo para marcarlo como Destino (B)";
         };
@@ -187,11 +271,119 @@ public class MapController {
     }
 
     public void onRunBFS() {
-        runAndMeasure("BFS", () -> Algorithms.bfs(graph, graph.getStart(), graph.getEnd()));
+        runAndMeasure("BFS", Algorithms::bfs);
     }
 
     public void onRunDFS() {
-        runAndMeasure("DFS", () -> Algorithms.dfs(graph, graph.getStart(), graph.getEnd()));
+        runAndMeasure("DFS", (cg, s, t, l) -> Algorithms.dfs(cg, s, t, TRACE_DFS ? System.out::println : null, l));
+    }
+
+    public void onRunDijkstra() {
+        runAndMeasure("Dijkstra", Algorithms::dijkstra);
+    }
+
+    public void onRunAStar() {
+        runAndMeasure("A*", Algorithms::astar);
+    }
+
+    public void onRunCH() {
+        boolean ready = graph.snapshot().hasHierarchy();
+        runAndMeasure("CH", cg -> {
+            if (cg.hasHierarchy()) return false;
+            cg.hierarchy();
+            return true;
+        }, (cg, s, t, l) -> Algorithms.contractionHierarchy(cg, s, t));
+        if (!ready) view.setStatusHint("⏳ Preprocesando jerarquía de contracción...");
+    }
+
+    public void onRunALT() {
+        File altFile = GraphIO.landmarksFile(mapFile);
+        boolean ready = landmarks != null && landmarks.matches(graph.snapshot());
+        runAndMeasure("ALT", cg -> {
+            if (landmarks != null && landmarks.matches(cg)) return false;
+            landmarksFor(cg, altFile);
+            return true;
+        }, (cg, s, t, l) -> Algorithms.alt(cg, s, t, landmarksFor(cg, altFile), l));
+        if (!ready) view.setStatusHint("⏳ Calculando " + Landmarks.DEFAULT_COUNT + " landmarks...");
+    }
+
+    // El preproceso se hace una vez por mapa y queda guardado junto al .cfg. Lo llama el
+    // paso de preproceso de ALT, fuera de la medición; en la consulta ya está listo.
+    private Landmarks landmarksFor(CompactGraph cg, File altFile) {
+        Landmarks lm = landmarks;
+        if (lm == null || !lm.matches(cg)) {
+            lm = Landmarks.compute(cg, Landmarks.DEFAULT_COUNT);
+            GraphIO.saveLandmarks(altFile, lm);
+            landmarks = lm;
+        }
+        return lm;
+    }
+
+    // Re-ruteo automático: mantiene un LPA* para el par A/B actual y lo repara
+    // en cada bloqueo/desbloqueo, publicando la nueva ruta en el mapa
+    public void onToggleAutoReroute(boolean enabled) {
+        autoReroute = enabled;
+        router = null;
+        if (enabled) {
+            reroute();
+        } else {
+            view.setStatusHint("Re-ruteo automático desactivado");
+        }
+    }
+
+    private void reroute() {
+        if (!autoReroute) return;
+        String s = graph.getStart(), t = graph.getEnd();
+        if (s == null || t == null) {
+            view.setStatusHint("🔄 Re-ruteo automático: define Inicio (A) y Destino (B)");
+            return;
+        }
+        if (router != null && router.matches(graph, s, t)) {
+            repairNow(s, t);
+            return;
+        }
+        router = null;
+        buildRouter(s, t);
+    }
+
+    // La primera búsqueda del LPA* cuesta lo mismo que un A* completo: se hace en el hilo de
+    // búsquedas sobre una instantánea y el router se instala al terminar. Un bloqueo que
+    // llegue mientras tanto vuelve a pasar por reroute() y reemplaza esta construcción.
+    private void buildRouter(String s, String t) {
+        CompactGraph cg = graph.snapshot();
+        long structure = graph.getStructureVersion();
+        GraphStats stats = graph.getStats();
+        long generation = supersedePending();
+        view.setStatusHint("⏳ Preparando re-ruteo automático...");
+        pendingSearch = searchExecutor.submit(() -> {
+            try {
+                long t0 = System.nanoTime();
+                DynamicRouter built = new DynamicRouter(cg, structure, s, t);
+                SearchResult r = built.computePath();
+                long nanos = System.nanoTime() - t0;
+                double length = cg.pathLength(r.getPath());
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != searchGeneration || !autoReroute) return;
+                    router = built;
+                    publish("LPA*", s, t, stats, r, nanos, length);
+                });
+            } catch (CancellationException ex) {
+                // la reemplazó un bloqueo o una consulta más nueva
+            } catch (RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == searchGeneration) view.setStatusHint("❌ LPA*: " + ex.getMessage());
+                });
+            }
+        });
+    }
+
+    public void onToggleComponents(boolean on) {
+        view.setShowComponents(on);
+        if (on) view.setStatusHint("🎨 " + graph.getComponentCount() + " componentes conexas");
+    }
+
+    public void onRunBidirectionalBFS() {
+        runAndMeasure("BiBFS", Algorithms::bidirectionalBfs);
     }
 
     public void onToggleMode() {
@@ -210,28 +402,76 @@ public class MapController {
         view.setStatusHint("Vista cambiada a: " + modeDesc);
     }
 
+    // Sobre el mismo mapa solo se añaden al diario las ediciones nuevas; la primera vez, al
+    // guardar en otro archivo o cuando el diario crece demasiado se compacta: se reescribe
+    // el mapa completo (junto con sus versiones binaria y mapeada) y el diario empieza vacío.
     public void onSave(File file) {
-        boolean ok = GraphIO.save(file, graph, view.getImagePath());
+        String imagePath = view.getImagePath();
+        boolean incremental = journal != null && file.getAbsoluteFile().equals(mapFile.getAbsoluteFile())
+                && journal.committedCount() + journal.pendingCount() < COMPACT_AFTER;
+        if (incremental) {
+            if (imagePath != null && !imagePath.equals(savedImagePath)) journal.setImage(imagePath);
+            int entries = journal.pendingCount();
+            try {
+                journal.commit();
+            } catch (IOException ex) {
+                view.setStatusHint("❌ Error al guardar el diario: " + ex.getMessage());
+                return;
+            }
+            savedImagePath = imagePath;
+            view.setStatusHint("✅ Guardado en " + file.getPath() + " (" + entries + " cambios al diario)");
+            return;
+        }
+        boolean ok = GraphIO.compact(file, graph, imagePath);
+        if (ok) {
+            mapFile = file;
+            savedImagePath = imagePath;
+            journal = openJournal(file);
+        }
         view.setStatusHint(ok ? "✅ Guardado en " + file.getPath() : "❌ Error al guardar.");
     }
 
+    private static GraphJournal openJournal(File mapFile) {
+        try {
+            return new GraphJournal(GraphIO.journalFile(mapFile));
+        } catch (IOException ex) {
+            return null;    // sin diario el próximo guardado compacta
+        }
+    }
+
     public void onLoad(File file) {
-        GraphIO.LoadResult lr = GraphIO.load(file, graph);
+        supersedePending();
+        // si la versión binaria está al día se carga esa, sin parsear el texto
+        File bin = GraphIO.binaryFile(file);
+        File source = (bin.exists() && bin.lastModified() >= file.lastModified()) ? bin : file;
+        GraphIO.LoadResult lr = GraphIO.load(source, graph);
+        mapFile = file;
+        journal = lr.ok ? openJournal(file) : null;
+        savedImagePath = lr.imagePath;
+        landmarks = GraphIO.loadLandmarks(GraphIO.landmarksFile(file));
         if (lr.imagePath != null)
             view.setBackgroundImage(lr.imagePath);
         view.setSearchResult(null);
-        view.setStatusHint(lr.ok ? ("✅ Cargado: " + file.getPath()) : ("❌ " + lr.message));
+        view.setStatusHint(lr.ok ? ("✅ Cargado: " + file.getPath() + " | " + graph.getStats()) : ("❌ " + lr.message));
         view.repaint();
     }
 
     public void onClear() {
+        supersedePending();
         graph.clear();
+        if (journal != null) journal.clear();
         view.setSearchResult(null);
         view.setStatusHint("🗑 Grafo limpiado - Todo eliminado");
         view.repaint();
     }
 
-    private void runAndMeasure(String name, Supplier<SearchResult> algo) {
+    private void runAndMeasure(String name, Search algo) {
+        runAndMeasure(name, null, algo);
+    }
+
+    // El preproceso (si lo hay) corre en el mismo hilo pero fuera de la medición: su tiempo
+    // se registra aparte como "<algoritmo> (preproceso)" y no como latencia de la consulta
+    private void runAndMeasure(String name, Preprocess prepare, Search algo) {
         String s = graph.getStart(), t = graph.getEnd();
         if (s == null || t == null) {
             view.setStatusHint("⚠️ Define Inicio (A) y Destino (B) antes de ejecutar " + name);
@@ -240,58 +480,166 @@ public class MapController {
 
         view.setStatusHint("⏳ Ejecutando " + name + "...");
 
+        CompactGraph cg = graph.snapshot();
+        long version = graph.getVersion();
+        GraphStats stats = graph.getStats();
+        long generation = supersedePending();
+        LiveExploration live = cg.size() >= STREAM_NODES ? new LiveExploration(generation, name.equals("DFS")) : null;
+        pendingSearch = searchExecutor.submit(() -> {
+            try {
+                long prepNanos = -1;
+                if (prepare != null) {
+                    long p0 = System.nanoTime();
+                    if (prepare.run(cg)) prepNanos = System.nanoTime() - p0;
+                }
+                long prepared = prepNanos;
+                Supplier<SearchResult> search = () -> {
+                    SearchResult res = algo.run(cg, s, t, live);
+                    // detenida a medias por una consulta más nueva: no va a la caché
+                    if (generation != searchGeneration) throw new CancellationException("Búsqueda reemplazada");
+                    return res;
+                };
+                long t0 = System.nanoTime();
+                // en mapas grandes la exploración se dibuja mientras corre la búsqueda y un
+                // resultado de la caché no la tiene: se ejecuta siempre
+                RouteCache.Lookup found = live == null
+                        ? routeCache.getOrCompute(name, s, t, version, search)
+                        : new RouteCache.Lookup(search.get(), false);
+                if (live != null) live.flush();
+                long nanos = System.nanoTime() - t0;
+                SearchResult r = found.result();
+                double length = cg.pathLength(r.getPath());
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != searchGeneration) return;
+                    if (prepared >= 0) recordPreprocess(name, s, t, stats, prepared);
+                    if (found.hit()) publishCached(name, r, length);
+                    else publish(name, s, t, stats, r, nanos, length);
+                });
+            } catch (CancellationException ex) {
+                // la reemplazó una consulta más nueva
+            } catch (RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == searchGeneration) view.setStatusHint("❌ " + name + ": " + ex.getMessage());
+                });
+            }
+        });
+    }
+
+    // Solo para las reparaciones incrementales del LPA* ya construido, que tocan pocos nodos
+    // y corren en el hilo de Swing; la primera búsqueda, que es completa, va por buildRouter().
+    // Se mide solo la reparación. Cancela la búsqueda pendiente: ya no vería estos bloqueos.
+    private void repairNow(String s, String t) {
+        supersedePending();
         long t0 = System.nanoTime();
-        SearchResult r = algo.get();
-        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        SearchResult r = router.computePath();
+        long nanos = System.nanoTime() - t0;
+        publish("LPA*", s, t, graph.getStats(), r, nanos, graph.pathLength(r.getPath()));
+    }
 
+    // Cancela la búsqueda en curso (si la hay) y abre una generación nueva
+    private long supersedePending() {
+        if (pendingSearch != null) pendingSearch.cancel(true);
+        pendingSearch = null;
+        view.clearExploration();
+        return ++searchGeneration;
+    }
+
+    // Lleva al mapa la exploración de una búsqueda mientras corre: copia las coordenadas de
+    // cada lote (los arreglos del algoritmo se reutilizan) y las publica en el hilo de Swing
+    // como mucho cada LIVE_PUBLISH_NANOS. Detiene la búsqueda si otra la reemplazó.
+    private final class LiveExploration implements ExplorationListener {
+        private final long generation;
+        private final boolean withEdges;    // como en los mapas chicos, solo el DFS dibuja aristas
+        private int[] nodes = new int[2 * BATCH];
+        private int[] edges = new int[0];
+        private int nodeLen = 0, edgeLen = 0;
+        private long lastPublish = System.nanoTime();
+
+        LiveExploration(long generation, boolean withEdges) {
+            this.generation = generation;
+            this.withEdges = withEdges;
+            if (withEdges) edges = new int[4 * BATCH];
+        }
+
+        @Override
+        public boolean onVisited(RoutingGraph g, int[] v, int count) {
+            if (nodeLen + 2 * count > nodes.length) nodes = Arrays.copyOf(nodes, 2 * nodes.length + 2 * count);
+            for (int i = 0; i < count; i++) {
+                nodes[nodeLen++] = g.x(v[i]);
+                nodes[nodeLen++] = g.y(v[i]);
+            }
+            if (System.nanoTime() - lastPublish >= LIVE_PUBLISH_NANOS) flush();
+            return generation == searchGeneration;
+        }
+
+        @Override
+        public boolean onEdges(RoutingGraph g, int[] from, int[] to, int count) {
+            if (!withEdges) return true;
+            if (edgeLen + 4 * count > edges.length) edges = Arrays.copyOf(edges, 2 * edges.length + 4 * count);
+            for (int i = 0; i < count; i++) {
+                edges[edgeLen++] = g.x(from[i]);
+                edges[edgeLen++] = g.y(from[i]);
+                edges[edgeLen++] = g.x(to[i]);
+                edges[edgeLen++] = g.y(to[i]);
+            }
+            return generation == searchGeneration;
+        }
+
+        void flush() {
+            lastPublish = System.nanoTime();
+            if (nodeLen == 0 && edgeLen == 0) return;
+            int[] n = Arrays.copyOf(nodes, nodeLen), e = Arrays.copyOf(edges, edgeLen);
+            nodeLen = edgeLen = 0;
+            SwingUtilities.invokeLater(() -> {
+                if (generation == searchGeneration) view.addExploration(n, n.length, e, e.length);
+            });
+        }
+    }
+
+    private void recordPreprocess(String name, String s, String t, GraphStats stats, long nanos) {
+        String label = name + " (preproceso)";
+        TimeStats.addRecord(new TimeStats.ExecutionRecord(label, s, t, stats, nanos, -1, false, 0));
+        logTime(label, TimeUnit.NANOSECONDS.toMillis(nanos), s, t, stats);
+    }
+
+    // Un acierto de caché no mide nada: no va a TimeStats ni a times.csv
+    private void publishCached(String name, SearchResult r, double length) {
         view.setSearchResult(r);
+        view.setStatusHint(r.hasPath()
+                ? String.format("✅ %s: Ruta encontrada | %d nodos | %.0f px | desde la caché",
+                        name, r.getPath().size(), length)
+                : String.format("❌ %s: No hay ruta disponible | desde la caché", name));
+    }
+
+    private void publish(String name, String s, String t, GraphStats stats,
+                         SearchResult r, long nanos, double length) {
+        view.setSearchResult(r);
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
 
         TimeStats.ExecutionRecord record = new TimeStats.ExecutionRecord(
                 name, s, t,
-                graph.getNodes().size(),
-                countEdges(),
-                ms,
+                stats,
+                nanos,
+                r.getVisitedCount(),
                 r.hasPath(),
                 r.hasPath() ? r.getPath().size() : 0);
         TimeStats.addRecord(record);
 
         String statusMsg = r.hasPath()
-                ? String.format("✅ %s: Ruta encontrada | %d nodos | %d ms", name, r.getPath().size(), ms)
+                ? String.format("✅ %s: Ruta encontrada | %d nodos | %.0f px | %d ms",
+                        name, r.getPath().size(), length, ms)
                 : String.format("❌ %s: No hay ruta disponible | %d ms", name, ms);
 
         view.setStatusHint(statusMsg);
-        logTime(name, ms, s, t, graph.getNodes().size(), countEdges());
-    }
-
-    private int countEdges() {
-        java.util.Set<String> uniq = new java.util.HashSet<>();
-        for (var e : graph.getAdjacency().entrySet()) {
-            String a = e.getKey();
-            for (String b : e.getValue()) {
-                String key = (a.compareTo(b) < 0) ? a + "-" + b : b + "-" + a;
-                uniq.add(key);
-            }
-        }
-        return uniq.size();
+        logTime(name, ms, s, t, stats);
     }
 
-    private void logTime(String algo, long ms, String s, String t, int nNodes, int nEdges) {
-        try {
-            java.io.File dir = new java.io.File("data");
-            if (!dir.exists())
-                dir.mkdirs();
-            java.io.File f = new java.io.File(dir, "times.csv");
-            boolean newFile = !f.exists();
-            try (java.io.FileWriter fw = new java.io.FileWriter(f, true);
-                    java.io.PrintWriter pw = new java.io.PrintWriter(fw)) {
-                if (newFile)
-                    pw.println("timestamp,algorithm,start,end,nodes,edges,time_ms");
-                String ts = java.time.LocalDateTime.now().toString();
-                pw.printf("%s,%s,%s,%s,%d,%d,%d%n", ts, algo, s, t, nNodes, nEdges, ms);
-            }
-        } catch (Exception ex) {
-            view.setStatusHint("⚠️ No se pudo escribir data/times.csv: " + ex.getMessage());
-        }
+    // El registro lo escribe un hilo aparte (TimeStats.timesLog); aquí solo se encola
+    private void logTime(String algo, long ms, String s, String t, GraphStats stats) {
+        if (TimeStats.logTime(algo, s, t, stats, ms)) return;
+        CsvAppender log = TimeStats.timesLog();
+        String reason = log.error() != null ? log.error().getMessage() : "registro saturado";
+        view.setStatusHint("⚠️ No se pudo escribir " + log.getFile().getPath() + ": " + reason);
     }
 
 }
\ No newline at end of file
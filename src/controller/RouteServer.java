@@ -0,0 +1,310 @@
+package controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Servidor HTTP local (solo 127.0.0.1) para que otras herramientas de la máquina pidan rutas
+// sin pasar por la ventana:
+//   GET  /route?from=N1&to=N12[&algo=astar]
+//   GET  /nearest?x=100&y=200[&radius=30]
+//   POST /block?id=N3   POST /unblock?id=N3   (o x, y, radius para una zona)
+//   GET  /stats
+// Las rutas se calculan sobre una instantánea inmutable, sin bloquear el grafo; los bloqueos
+// la reemplazan por una nueva. Como mucho maxConcurrent peticiones trabajan a la vez: las
+// demás esperan un momento y, si siguen sin turno, reciben 503.
+public final class RouteServer {
+
+    private static final long QUEUE_WAIT_MS = 200;
+    private static final String[] ENDPOINTS = { "route", "nearest", "block", "unblock", "stats" };
+
+    private final Graph graph;
+    private final File mapFile;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();   // protege graph
+    private volatile CompactGraph snapshot;
+    private volatile Landmarks landmarks = null;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RouteServer(Graph graph, File mapFile, int maxConcurrent) {
+        this.graph = graph;
+        this.mapFile = mapFile;
+        this.snapshot = graph.snapshot();
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        for (String e : ENDPOINTS) latencies.put(e, new LatencyHistogram());
+    }
+
+    // port = 0 elige un puerto libre; devuelve el puerto real
+    public int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/route", limited("route", "GET", this::route));
+        server.createContext("/nearest", limited("nearest", "GET", this::nearest));
+        server.createContext("/block", limited("block", "POST", ex -> block(ex, true)));
+        server.createContext("/unblock", limited("unblock", "POST", ex -> block(ex, false)));
+        // /stats no pasa por el límite: tiene que responder justo cuando el servidor está saturado
+        server.createContext("/stats", ex -> timed("stats", ex, this::stats));
+        // sin hilos virtuales hacen falta más hilos que permisos: los que sobran contestan
+        // 503 enseguida en lugar de quedar en la cola del ejecutor
+        executor = Searches.virtualThreads();
+        if (executor == null) executor = Searches.platformThreads(2 * maxConcurrent + 2, "http");
+        server.setExecutor(executor);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(HttpExchange ex) throws IOException;
+    }
+
+    private static final class Response {
+        final int status;
+        final String json;
+
+        Response(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+    }
+
+    private HttpHandler limited(String name, String method, Handler h) {
+        return ex -> timed(name, ex, e -> {
+            if (!e.getRequestMethod().equals(method))
+                return error(405, "usa " + method);
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(QUEUE_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                rejected.increment();
+                e.getResponseHeaders().set("Retry-After", "1");
+                return error(503, "servidor ocupado");
+            }
+            try {
+                return h.handle(e);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private void timed(String name, HttpExchange ex, Handler h) throws IOException {
+        long t0 = System.nanoTime();
+        Response r;
+        try {
+            r = h.handle(ex);
+        } catch (RuntimeException re) {
+            r = error(500, String.valueOf(re.getMessage()));
+        }
+        try {
+            byte[] body = r.json.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(r.status, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            ex.close();
+            latencies.get(name).record(System.nanoTime() - t0);
+        }
+    }
+
+    private Response route(HttpExchange ex) {
+        Map<String, String> q = query(ex);
+        String from = q.get("from"), to = q.get("to");
+        if (from == null || to == null) return error(400, "faltan 'from' y 'to'");
+        String algo = q.getOrDefault("algo", "astar");
+        Searches.Search search = Searches.forName(algo, this::landmarksFor);
+        if (search == null) return error(400, "algoritmo desconocido: " + algo + " (" + Searches.NAMES + ")");
+
+        CompactGraph cg = snapshot;
+        if (cg.indexOf(from) < 0) return error(404, "nodo inexistente: " + from);
+        if (cg.indexOf(to) < 0) return error(404, "nodo inexistente: " + to);
+        long t0 = System.nanoTime();
+        SearchResult r = search.run(cg, from, to);
+        long nanos = System.nanoTime() - t0;
+
+        StringBuilder sb = new StringBuilder("{");
+        field(sb, "algorithm", r.getAlgorithm()).append(',');
+        sb.append("\"found\":").append(r.hasPath()).append(',');
+        if (r.hasPath()) sb.append("\"length\":").append(String.format(Locale.ROOT, "%.3f", cg.pathLength(r.getPath()))).append(',');
+        sb.append("\"expanded\":").append(r.getVisitedCount()).append(',');
+        sb.append("\"nanos\":").append(nanos).append(',');
+        sb.append("\"path\":");
+        array(sb, r.getPath());
+        return new Response(200, sb.append('}').toString());
+    }
+
+    private Response nearest(HttpExchange ex) {
+        Map<String, String> q = query(ex);
+        Integer x = integer(q, "x"), y = integer(q, "y"), radius = integer(q, "radius");
+        if (x == null || y == null) return error(400, "faltan 'x' e 'y' enteros");
+        Node n;
+        lock.readLock().lock();
+        try {
+            if (radius != null) {
+                n = graph.encontrarIdNodoCercano(x, y, radius).map(graph::getNode).orElse(null);
+            } else {
+                List<Node> k = graph.kNearestNodes(x, y, 1);
+                n = k.isEmpty() ? null : k.get(0);
+            }
+            if (n == null) return error(404, "ningún nodo cerca de (" + x + "," + y + ")");
+            StringBuilder sb = new StringBuilder("{");
+            field(sb, "id", n.id).append(',');
+            sb.append("\"x\":").append(n.x).append(",\"y\":").append(n.y).append(',');
+            sb.append("\"blocked\":").append(graph.isBlocked(n.id));
+            return new Response(200, sb.append('}').toString());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Response block(HttpExchange ex, boolean isBlocked) {
+        Map<String, String> q = query(ex);
+        String id = q.get("id");
+        Integer x = integer(q, "x"), y = integer(q, "y"), radius = integer(q, "radius");
+        if (id == null && (x == null || y == null || radius == null))
+            return error(400, "falta 'id' o bien 'x', 'y' y 'radius'");
+        List<String> changed;
+        lock.writeLock().lock();
+        try {
+            if (id != null) {
+                if (!graph.contains(id)) return error(404, "nodo inexistente: " + id);
+                changed = graph.setBlocked(List.of(id), isBlocked);
+            } else {
+                changed = graph.setBlockedInRadius(x, y, radius, isBlocked);
+            }
+            // instantánea nueva solo si algo cambió; comparte la topología con la anterior
+            if (!changed.isEmpty()) snapshot = graph.snapshot();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        StringBuilder sb = new StringBuilder("{\"blocked\":").append(isBlocked).append(",\"changed\":");
+        array(sb, changed);
+        return new Response(200, sb.append('}').toString());
+    }
+
+    private Response stats(HttpExchange ex) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"maxConcurrent\":").append(maxConcurrent).append(',');
+        sb.append("\"inFlight\":").append(maxConcurrent - permits.availablePermits()).append(',');
+        sb.append("\"rejected\":").append(rejected.sum()).append(',');
+        sb.append("\"latency\":{");
+        boolean first = true;
+        for (Map.Entry<String, LatencyHistogram> e : latencies.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(e.getKey()).append("\":{")
+              .append("\"count\":").append(h.count())
+              .append(",\"p50_us\":").append(h.percentile(50) / 1000)
+              .append(",\"p90_us\":").append(h.percentile(90) / 1000)
+              .append(",\"p99_us\":").append(h.percentile(99) / 1000)
+              .append(",\"max_us\":").append(h.max() / 1000).append('}');
+        }
+        return new Response(200, sb.append("}}").toString());
+    }
+
+    // Igual que en la ventana: se reutilizan los del .alt si corresponden a la instantánea
+    // y se recalculan una sola vez si cambió la estructura (nodos, aristas o pesos). Los
+    // bloqueos no los invalidan. Solo se toma el cerrojo cuando hay que cargar o calcular.
+    private Landmarks landmarksFor(RoutingGraph cg) {
+        Landmarks lm = landmarks;
+        if (lm != null && lm.matches(cg)) return lm;
+        synchronized (this) {
+            lm = landmarks;
+            if (lm == null) lm = GraphIO.loadLandmarks(GraphIO.landmarksFile(mapFile));
+            if (lm == null || !lm.matches(cg)) lm = Landmarks.compute(cg, Landmarks.DEFAULT_COUNT);
+            landmarks = lm;
+            return lm;
+        }
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder sb = new StringBuilder("{");
+        return new Response(status, field(sb, "error", message).append('}').toString());
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> out = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    private static Integer integer(Map<String, String> q, String key) {
+        try {
+            return q.containsKey(key) ? Integer.valueOf(q.get(key)) : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static StringBuilder field(StringBuilder sb, String key, String value) {
+        sb.append('"').append(key).append("\":");
+        return string(sb, value);
+    }
+
+    private static void array(StringBuilder sb, List<String> values) {
+        sb.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(',');
+            string(sb, values.get(i));
+        }
+        sb.append(']');
+    }
+
+    private static StringBuilder string(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"');
+    }
+}
@@ -0,0 +1,59 @@
+package controller;
+
+import model.*;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// Algoritmos por nombre y ejecutor de tareas para los modos sin ventana (lote y servidor)
+final class Searches {
+
+    static final String NAMES = "bfs, bibfs, dfs, dijkstra, astar, ch, alt";
+
+    // Búsqueda sobre una instantánea o un grafo mapeado: (grafo, inicio, destino) -> resultado
+    @FunctionalInterface
+    interface Search {
+        SearchResult run(RoutingGraph cg, String start, String end);
+    }
+
+    // Aquí solo interesan la ruta y cuántos nodos se expandieron: con un oyente que descarta
+    // los lotes, las búsquedas no construyen la lista de ids visitados
+    private static final ExplorationListener COUNT_ONLY = (g, nodes, count) -> true;
+
+    private Searches() { }
+
+    // null si el nombre no corresponde a ningún algoritmo. ALT pide los landmarks de la
+    // instantánea a 'landmarks' en cada consulta.
+    static Search forName(String algorithm, Function<RoutingGraph, Landmarks> landmarks) {
+        switch (algorithm.toLowerCase(Locale.ROOT)) {
+            case "bfs": return (cg, s, t) -> Algorithms.bfs(cg, s, t, COUNT_ONLY);
+            case "bibfs": return (cg, s, t) -> Algorithms.bidirectionalBfs(cg, s, t, COUNT_ONLY);
+            case "dfs": return (cg, s, t) -> Algorithms.dfs(cg, s, t, null, COUNT_ONLY);
+            case "dijkstra": return (cg, s, t) -> Algorithms.dijkstra(cg, s, t, COUNT_ONLY);
+            case "astar": return (cg, s, t) -> Algorithms.astar(cg, s, t, COUNT_ONLY);
+            case "ch": return Algorithms::contractionHierarchy;
+            case "alt": return (cg, s, t) -> Algorithms.alt(cg, s, t, landmarks.apply(cg), COUNT_ONLY);
+            default: return null;
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor existe desde Java 21; el proyecto compila
+    // para 17, así que se busca por reflexión. null si la JVM no lo tiene.
+    static ExecutorService virtualThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    static ExecutorService platformThreads(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread th = new Thread(r, name);
+            th.setDaemon(true);
+            return th;
+        });
+    }
+}
@@ -1,139 +1,426 @@
 package model;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.IntToDoubleFunction;
 
+// Cada algoritmo tiene dos versiones: sobre Graph (toma su instantánea actual) y
+// sobre una RoutingGraph ya tomada (instantánea de Graph o MappedGraph), que es la
+// que se usa desde hilos en segundo plano.
+// Las búsquedas largas revisan cada tanto si su hilo fue interrumpido y en ese caso
+// abandonan con CancellationException.
+// Con un ExplorationListener la exploración se entrega por lotes mientras avanza y el
+// SearchResult queda sin visitedOrder ni exploredEdges (solo con getVisitedCount()).
 public class Algorithms {
 
     // BFS recorre camino más corto en número de aristas, evitando nodos bloqueados
     public static SearchResult bfs(Graph g, String start, String end) {
-        if (start == null || end == null) return new SearchResult(List.of(), List.of(), List.of(), "BFS");
-        
-        Node startNode = g.getNode(start);
-        Node endNode = g.getNode(end);
-        if (startNode == null || endNode == null || startNode.blocked || endNode.blocked) {
-            return new SearchResult(List.of(), List.of(), List.of(), "BFS");
-        }
-        
-        Queue<String> q = new ArrayDeque<>();
-        Map<String, String> parent = new HashMap<>();
-        Set<String> visited = new LinkedHashSet<>();
-        q.add(start);
-        visited.add(start);
-
-        while (!q.isEmpty()) {
-            String u = q.poll();
-            if (u.equals(end)) break;
-            for (String v : g.getAdjacency().getOrDefault(u, Set.of())) {
-                Node vNode = g.getNode(v);
-                if (vNode != null && !vNode.blocked && !visited.contains(v)) {
-                    visited.add(v);
-                    parent.put(v, u);
-                    q.add(v);
+        return bfs(g.snapshot(), start, end);
+    }
+
+    public static SearchResult bfs(RoutingGraph cg, String start, String end) {
+        return bfs(cg, start, end, null);
+    }
+
+    public static SearchResult bfs(RoutingGraph cg, String start, String end, ExplorationListener listener) {
+        int s = cg.indexOf(start), t = cg.indexOf(end);
+        if (!cg.sameComponent(s, t)) return unreachable("BFS");
+
+        // parent[v] == -1 marca "no visitado"; la cola guarda además el orden de visita
+        ExplorationBuffer out = ExplorationBuffer.of(cg, listener);
+        int[] parent = new int[cg.size()];
+        Arrays.fill(parent, -1);
+        int[] queue = new int[cg.size()];
+        int head = 0, tail = 0;
+        queue[tail++] = s;
+        parent[s] = s;
+        if (out != null) out.visit(s);
+
+        search:
+        while (head < tail) {
+            checkCancelled(head);
+            int u = queue[head++];
+            if (u == t) break;
+            for (int i = cg.begin(u), to = cg.end(u); i < to; i++) {
+                int v = cg.target(i);
+                if (parent[v] == -1 && !cg.isBlocked(v)) {
+                    parent[v] = u;
+                    queue[tail++] = v;
+                    if (out != null && !(out.edge(u, v) & out.visit(v))) break search;
+                }
+            }
+        }
+
+        List<String> path = reconstruct(cg, parent, s, t);
+        if (out != null) return new SearchResult(out.finish(path), List.of(), List.of(), "BFS", tail);
+        return new SearchResult(path, cg.toIds(queue, tail), List.of(), "BFS");
+    }
+
+    // Dijkstra: camino de menor longitud física (pesos de arista), con montículo indexado
+    public static SearchResult dijkstra(Graph g, String start, String end) {
+        return dijkstra(g.snapshot(), start, end);
+    }
+
+    public static SearchResult dijkstra(RoutingGraph cg, String start, String end) {
+        return dijkstra(cg, start, end, null);
+    }
+
+    public static SearchResult dijkstra(RoutingGraph cg, String start, String end, ExplorationListener listener) {
+        return bestFirst(cg, start, end, "Dijkstra", null, listener);
+    }
+
+    // A*: Dijkstra guiado por la distancia en línea recta hasta el destino
+    public static SearchResult astar(Graph g, String start, String end) {
+        return astar(g.snapshot(), start, end);
+    }
+
+    public static SearchResult astar(RoutingGraph cg, String start, String end) {
+        return astar(cg, start, end, null);
+    }
+
+    public static SearchResult astar(RoutingGraph cg, String start, String end, ExplorationListener listener) {
+        int t = cg.indexOf(end);
+        if (!cg.sameComponent(cg.indexOf(start), t)) return unreachable("A*");
+        double scale = cg.heuristicScale();
+        int tx = cg.x(t), ty = cg.y(t);
+        return bestFirst(cg, start, end, "A*", v -> scale * Math.hypot(cg.x(v) - tx, cg.y(v) - ty), listener);
+    }
+
+    // ALT: A* con cotas inferiores de landmarks (desigualdad triangular)
+    public static SearchResult alt(Graph g, String start, String end, Landmarks landmarks) {
+        return alt(g.snapshot(), start, end, landmarks);
+    }
+
+    public static SearchResult alt(RoutingGraph cg, String start, String end, Landmarks landmarks) {
+        return alt(cg, start, end, landmarks, null);
+    }
+
+    public static SearchResult alt(RoutingGraph cg, String start, String end, Landmarks landmarks,
+                                   ExplorationListener listener) {
+        if (!landmarks.matches(cg)) {
+            throw new IllegalStateException("Los landmarks no corresponden al grafo actual");
+        }
+        int t = cg.indexOf(end);
+        if (!cg.sameComponent(cg.indexOf(start), t)) return unreachable("ALT");
+        return bestFirst(cg, start, end, "ALT", v -> landmarks.lowerBound(v, t), listener);
+    }
+
+    // Consulta sobre la jerarquía de contracción (la primera vez paga el preproceso).
+    // Explora muy pocos nodos, así que no tiene versión por lotes.
+    public static SearchResult contractionHierarchy(Graph g, String start, String end) {
+        return contractionHierarchy(g.snapshot(), start, end);
+    }
+
+    public static SearchResult contractionHierarchy(RoutingGraph cg, String start, String end) {
+        if (!cg.sameComponent(cg.indexOf(start), cg.indexOf(end))) return unreachable("CH");
+        return cg.hierarchy().query(start, end);
+    }
+
+    // Inicio y destino en componentes distintas (o bloqueados): no hace falta explorar
+    private static SearchResult unreachable(String name) {
+        return new SearchResult(List.of(), List.of(), List.of(), name);
+    }
+
+    // Revisa la interrupción del hilo una vez cada 1024 pasos (también la usan los preprocesos)
+    static void checkCancelled(int step) {
+        if ((step & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Búsqueda cancelada");
+        }
+    }
+
+    // Búsqueda de primero el mejor con montículo indexado. Sin heurística es Dijkstra;
+    // con una heurística consistente es A* y cada nodo se asienta una sola vez.
+    // Al oyente llega cada nodo al asentarse, con la arista desde su padre.
+    private static SearchResult bestFirst(RoutingGraph cg, String start, String end, String name,
+                                          IntToDoubleFunction heuristic, ExplorationListener listener) {
+        int s = cg.indexOf(start), t = cg.indexOf(end);
+        if (!cg.sameComponent(s, t)) return unreachable(name);
+
+        int n = cg.size();
+        ExplorationBuffer out = ExplorationBuffer.of(cg, listener);
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        boolean[] settled = new boolean[n];
+        int[] order = out == null ? new int[n] : null;
+        int visitedCount = 0;
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        dist[s] = 0;
+        parent[s] = s;
+        heap.insertOrDecrease(s, 0);
+
+        while (!heap.isEmpty()) {
+            checkCancelled(visitedCount);
+            int u = heap.pollMin();
+            settled[u] = true;
+            if (out == null) {
+                order[visitedCount++] = u;
+            } else {
+                visitedCount++;
+                if (!((u == s || out.edge(parent[u], u)) & out.visit(u))) break;
+            }
+            if (u == t) break;
+            for (int i = cg.begin(u), to = cg.end(u); i < to; i++) {
+                int v = cg.target(i);
+                if (settled[v] || cg.isBlocked(v)) continue;
+                double nd = dist[u] + cg.weight(i);
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, heuristic == null ? nd : nd + heuristic.applyAsDouble(v));
+                }
+            }
+        }
+
+        List<String> path = settled[t] ? reconstruct(cg, parent, s, t) : List.of();
+        if (out != null) return new SearchResult(out.finish(path), List.of(), List.of(), name, visitedCount);
+        return new SearchResult(path, cg.toIds(order, visitedCount), List.of(), name);
+    }
+
+    // BFS bidireccional: crece una frontera desde cada extremo, siempre expandiendo
+    // por niveles la más pequeña, y se detiene cuando ambas se tocan
+    public static SearchResult bidirectionalBfs(Graph g, String start, String end) {
+        return bidirectionalBfs(g.snapshot(), start, end);
+    }
+
+    public static SearchResult bidirectionalBfs(RoutingGraph cg, String start, String end) {
+        return bidirectionalBfs(cg, start, end, null);
+    }
+
+    public static SearchResult bidirectionalBfs(RoutingGraph cg, String start, String end,
+                                                ExplorationListener listener) {
+        int s = cg.indexOf(start), t = cg.indexOf(end);
+        if (!cg.sameComponent(s, t)) return unreachable("BiBFS");
+        ExplorationBuffer out = ExplorationBuffer.of(cg, listener);
+        if (s == t) {
+            if (out == null) return new SearchResult(List.of(start), List.of(start), List.of(), "BiBFS");
+            out.visit(s);
+            return new SearchResult(out.finish(List.of(start)), List.of(), List.of(), "BiBFS", 1);
+        }
+
+        int n = cg.size();
+        int[] distF = new int[n], distB = new int[n];
+        int[] parentF = new int[n], parentB = new int[n];
+        Arrays.fill(distF, -1);
+        Arrays.fill(distB, -1);
+        int[] queueF = new int[n], queueB = new int[n];
+        int headF = 0, tailF = 0, headB = 0, tailB = 0;
+        int[] order = out == null ? new int[n] : null;
+        int visitedCount = 2;
+
+        queueF[tailF++] = s; distF[s] = 0; parentF[s] = s;
+        queueB[tailB++] = t; distB[t] = 0; parentB[t] = t;
+        if (out == null) {
+            order[0] = s;
+            order[1] = t;
+        } else {
+            out.visit(s);
+            out.visit(t);
+        }
+
+        int meetU = -1, meetV = -1, best = Integer.MAX_VALUE;
+        search:
+        while (headF < tailF && headB < tailB && best == Integer.MAX_VALUE) {
+            boolean forward = (tailF - headF) <= (tailB - headB);
+            int[] queue = forward ? queueF : queueB;
+            int[] dist = forward ? distF : distB;
+            int[] other = forward ? distB : distF;
+            int[] parent = forward ? parentF : parentB;
+            int head = forward ? headF : headB;
+            int tail = forward ? tailF : tailB;
+
+            // se expande el nivel completo para que el mejor encuentro sea el más corto
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                checkCancelled(head);
+                int u = queue[head++];
+                for (int i = cg.begin(u), to = cg.end(u); i < to; i++) {
+                    int v = cg.target(i);
+                    if (cg.isBlocked(v)) continue;
+                    if (other[v] != -1 && dist[u] + 1 + other[v] < best) {
+                        best = dist[u] + 1 + other[v];
+                        meetU = u;
+                        meetV = v;
+                    }
+                    if (dist[v] == -1) {
+                        dist[v] = dist[u] + 1;
+                        parent[v] = u;
+                        queue[tail++] = v;
+                        if (out == null) {
+                            if (other[v] == -1) order[visitedCount++] = v;
+                        } else {
+                            boolean more = out.edge(u, v);
+                            if (other[v] == -1) {
+                                visitedCount++;
+                                more &= out.visit(v);
+                            }
+                            if (!more) break search;
+                        }
+                    }
                 }
             }
+
+            if (forward) { headF = head; tailF = tail; } else { headB = head; tailB = tail; }
+            if (best != Integer.MAX_VALUE && !forward) {
+                // el encuentro se registró como (lado B, lado A): se normaliza a (A, B)
+                int tmp = meetU; meetU = meetV; meetV = tmp;
+            }
         }
 
-        List<String> path = reconstruct(parent, start, end);
-        return new SearchResult(path, new ArrayList<>(visited), List.of(), "BFS");
+        // si el listener detuvo la búsqueda no hay ruta, y el encuentro puede haber quedado
+        // sin normalizar (registrado en un nivel del lado B que no llegó a terminarse)
+        List<String> path = new ArrayList<>();
+        if (best != Integer.MAX_VALUE && (out == null || !out.stopped())) {
+            for (int cur = meetU; ; cur = parentF[cur]) {
+                path.add(cg.id(cur));
+                if (cur == s) break;
+            }
+            Collections.reverse(path);
+            for (int cur = meetV; ; cur = parentB[cur]) {
+                path.add(cg.id(cur));
+                if (cur == t) break;
+            }
+        }
+        if (out != null) return new SearchResult(out.finish(path), List.of(), List.of(), "BiBFS", visitedCount);
+        return new SearchResult(path, cg.toIds(order, visitedCount), List.of(), "BiBFS");
     }
 
     // DFS MEJORADO - Captura todos los caminos explorados de forma muy visible
     public static SearchResult dfs(Graph g, String start, String end) {
+        return dfs(g.snapshot(), start, end, null);
+    }
 
-        if (start == null || end == null) return new SearchResult(List.of(), List.of(), List.of(), "DFS");
-        
-        Node startNode = g.getNode(start);
-        Node endNode = g.getNode(end);
-        if (startNode == null || endNode == null || startNode.blocked || endNode.blocked) {
-            return new SearchResult(List.of(), List.of(), List.of(), "DFS");
-        }
-
-        Set<String> visited = new LinkedHashSet<>();
-        List<String> currentPath = new ArrayList<>();
-        List<String> finalPath = new ArrayList<>();
-        Set<String> allExploredEdges = new LinkedHashSet<>();
-        
-        System.out.println("\n=== INICIO DFS ===");
-        System.out.println("Desde: " + start + " → Hasta: " + end);
-        
-        dfsRecursive(g, start, end, visited, currentPath, finalPath, allExploredEdges, 0);
-        
-        System.out.println("\n=== RESULTADO DFS ===");
-        System.out.println("Total aristas exploradas: " + allExploredEdges.size());
-        System.out.println("Caminos explorados: " + allExploredEdges);
-        System.out.println("Camino final: " + finalPath);
-        
-        return new SearchResult(finalPath, new ArrayList<>(visited), 
-                               new ArrayList<>(allExploredEdges), "DFS");
-    }
-
-    private static boolean dfsRecursive(Graph g, String current, String end, 
-                                       Set<String> visited, List<String> currentPath, 
-                                       List<String> finalPath, Set<String> allExploredEdges,
-                                       int depth) {
-        String indent = "  ".repeat(depth);
-        
-        visited.add(current);
-        currentPath.add(current);
-        
-        System.out.println(indent + "→ Visitando: " + current + " (profundidad: " + depth + ")");
-        
-        if (currentPath.size() > 1) {
-            String prev = currentPath.get(currentPath.size() - 2);
-            String edge = edgeKey(prev, current);
-            allExploredEdges.add(edge);
-            System.out.println(indent + "  ✓ Arista explorada: " + edge);
-        }
-        
-        if (current.equals(end)) {
-            System.out.println(indent + "★ DESTINO ENCONTRADO!");
-            finalPath.clear();
-            finalPath.addAll(currentPath);
-            return true;
+    public static SearchResult dfs(Graph g, String start, String end, Consumer<String> trace) {
+        return dfs(g.snapshot(), start, end, trace);
+    }
+
+    // DFS con pila explícita: mismo orden que la versión recursiva (vecinos por id),
+    // sin límite de profundidad por la pila del hilo. El rastreo paso a paso solo se
+    // genera si se pasa un destino para las trazas (p. ej. System.out::println).
+    public static SearchResult dfs(RoutingGraph cg, String start, String end, Consumer<String> trace) {
+        return dfs(cg, start, end, trace, null);
+    }
+
+    // Con oyente, cada nodo llega al entrar en él junto con la arista desde el anterior
+    public static SearchResult dfs(RoutingGraph cg, String start, String end, Consumer<String> trace,
+                                   ExplorationListener listener) {
+        int s = cg.indexOf(start), t = cg.indexOf(end);
+        if (!cg.sameComponent(s, t)) return unreachable("DFS");
+
+        int n = cg.size();
+        ExplorationBuffer out = ExplorationBuffer.of(cg, listener);
+        boolean[] visited = new boolean[n];
+        int[] order = out == null ? new int[n] : null;
+        int[] path = new int[n];      // pila: camino actual desde el inicio
+        int[] cursor = new int[n];    // siguiente vecino a revisar en cada nivel de la pila
+        int visitedCount = 0, depth = 0, steps = 0;
+        List<String> allExploredEdges = out == null ? new ArrayList<>() : null;
+
+        if (trace != null) {
+            trace.accept("\n=== INICIO DFS ===");
+            trace.accept("Desde: " + start + " → Hasta: " + end);
         }
-        
-        List<String> neighbors = new ArrayList<>(g.getAdjacency().getOrDefault(current, Set.of()));
-        Collections.sort(neighbors); 
-        
-        System.out.println(indent + "  Vecinos de " + current + ": " + neighbors);
-        
-        for (String neighbor : neighbors) {
-            Node neighborNode = g.getNode(neighbor);
-            
-            if (neighborNode != null && !neighborNode.blocked) {
-                if (!visited.contains(neighbor)) {
-                    System.out.println(indent + "  → Explorando vecino: " + neighbor);
-                    
-                    if (dfsRecursive(g, neighbor, end, visited, currentPath, 
-                                    finalPath, allExploredEdges, depth + 1)) {
-                        return true; 
-                    }
+
+        visited[s] = true;
+        if (out == null) order[visitedCount] = s;
+        else out.visit(s);
+        visitedCount++;
+        path[0] = s;
+        cursor[0] = cg.begin(s);
+        boolean found = enter(cg, path, 0, t, allExploredEdges, trace);
+
+        while (!found && depth >= 0 && (out == null || !out.stopped())) {
+            checkCancelled(++steps);
+            int u = path[depth];
+            if (cursor[depth] < cg.end(u)) {
+                int v = cg.sortedTarget(cursor[depth]++);
+                if (cg.isBlocked(v)) {
+                    if (trace != null) trace.accept(indent(depth) + "  ⊗ " + cg.id(v) + " está bloqueado");
+                } else if (visited[v]) {
+                    if (trace != null) trace.accept(indent(depth) + "  ✗ " + cg.id(v) + " ya visitado, ignorando");
                 } else {
-                    System.out.println(indent + "  ✗ " + neighbor + " ya visitado, ignorando");
+                    if (trace != null) trace.accept(indent(depth) + "  → Explorando vecino: " + cg.id(v));
+                    visited[v] = true;
+                    if (out == null) order[visitedCount] = v;
+                    else if (!(out.edge(u, v) & out.visit(v))) break;
+                    visitedCount++;
+                    path[++depth] = v;
+                    cursor[depth] = cg.begin(v);
+                    found = enter(cg, path, depth, t, allExploredEdges, trace);
                 }
-            } else if (neighborNode != null && neighborNode.blocked) {
-                System.out.println(indent + "  ⊗ " + neighbor + " está bloqueado");
+            } else {
+                if (trace != null) trace.accept(indent(depth) + "← Backtrack desde: " + cg.id(u));
+                depth--;
             }
         }
-        
-        System.out.println(indent + "← Backtrack desde: " + current);
-        currentPath.remove(currentPath.size() - 1);
-        
+
+        List<String> finalPath = found ? cg.toIds(path, depth + 1) : List.of();
+        if (out != null) finalPath = out.finish(finalPath);
+
+        if (trace != null) {
+            trace.accept("\n=== RESULTADO DFS ===");
+            if (allExploredEdges != null) {
+                trace.accept("Total aristas exploradas: " + allExploredEdges.size());
+                trace.accept("Caminos explorados: " + allExploredEdges);
+            }
+            trace.accept("Camino final: " + finalPath);
+        }
+
+        if (out != null) return new SearchResult(finalPath, List.of(), List.of(), "DFS", visitedCount);
+        return new SearchResult(finalPath, cg.toIds(order, visitedCount),
+                               allExploredEdges, "DFS");
+    }
+
+    // Registra la llegada del DFS a path[depth]; devuelve true si es el destino
+    private static boolean enter(RoutingGraph cg, int[] path, int depth, int end,
+                                 List<String> allExploredEdges, Consumer<String> trace) {
+        int current = path[depth];
+        if (trace != null) {
+            trace.accept(indent(depth) + "→ Visitando: " + cg.id(current) + " (profundidad: " + depth + ")");
+        }
+
+        if (depth > 0 && (allExploredEdges != null || trace != null)) {
+            String edge = edgeKey(cg.id(path[depth - 1]), cg.id(current));
+            if (allExploredEdges != null) allExploredEdges.add(edge);
+            if (trace != null) trace.accept(indent(depth) + "  ✓ Arista explorada: " + edge);
+        }
+
+        if (current == end) {
+            if (trace != null) trace.accept(indent(depth) + "★ DESTINO ENCONTRADO!");
+            return true;
+        }
+
+        if (trace != null) {
+            trace.accept(indent(depth) + "  Vecinos de " + cg.id(current) + ": "
+                    + neighborIds(cg, cg.begin(current), cg.end(current)));
+        }
         return false;
     }
 
-    private static List<String> reconstruct(Map<String, String> parent, String start, String end) {
-        if (start.equals(end)) return List.of(start);
-        List<String> path = new ArrayList<>();
-        String cur = end;
-        while (cur != null && !cur.equals(start)) {
-            path.add(cur);
-            cur = parent.get(cur);
-        }
-        if (cur == null) return List.of(); 
-        path.add(start);
-        Collections.reverse(path);
-        return path;
+    private static String indent(int depth) {
+        return "  ".repeat(depth);
+    }
+
+    private static List<String> neighborIds(RoutingGraph cg, int from, int to) {
+        List<String> out = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) out.add(cg.id(cg.sortedTarget(i)));
+        return out;
+    }
+
+    private static List<String> reconstruct(RoutingGraph cg, int[] parent, int start, int end) {
+        if (parent[end] == -1) return List.of();
+        int len = 1;
+        for (int cur = end; cur != start; cur = parent[cur]) len++;
+        String[] path = new String[len];
+        int cur = end;
+        for (int i = len - 1; i >= 0; i--) {
+            path[i] = cg.id(cur);
+            cur = parent[cur];
+        }
+        return Arrays.asList(path);
     }
     
     private static String edgeKey(String a, String b) {
@@ -0,0 +1,239 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Formato binario versionado del grafo editable (.gbin). Se lee con un solo mapeo del
+// archivo y se copia en bloque a los arreglos de Graph, sin parsear texto; conserva el
+// orden de los vecinos tal como estaba en memoria.
+//
+// Little-endian:
+//   MAGIC, FORMAT_VERSION, n, arcos (suma de grados), pesos manuales, inicio, destino
+//   imagen: largo en bytes (-1 = sin imagen) + UTF-8
+//   idOffsets[n+1] + ids UTF-8 (tabla de strings)
+//   xs[n], ys[n], offsets[n+1], targets[arcos]
+//   pesos manuales: (u, v, peso) con u < v
+//   blocked[(n+63)/64]
+final class BinaryGraphFormat {
+
+    static final int MAGIC = 0x4742494E;     // "GBIN"
+    static final int FORMAT_VERSION = 1;
+
+    private BinaryGraphFormat() { }
+
+    // true si el archivo empieza con la marca del formato binario
+    static boolean isBinary(File file) {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining() && ch.read(b) >= 0) { }
+            return b.position() == 4 && b.getInt(0) == MAGIC;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    static void write(File file, Graph g, String imagePath) throws IOException {
+        int n = g.nodeCount();
+        int arcs = 0, custom = 0;
+        for (int u = 0; u < n; u++) {
+            arcs += g.degree(u);
+            for (int k = 0; k < g.degree(u); k++) {
+                int v = g.neighbor(u, k);
+                if (u < v && g.hasCustomWeight(u, v)) custom++;
+            }
+        }
+        byte[] image = imagePath == null ? null : imagePath.getBytes(StandardCharsets.UTF_8);
+        byte[][] ids = new byte[n][];
+        long idLength = 0;
+        for (int u = 0; u < n; u++) {
+            ids[u] = g.nodeAt(u).id.getBytes(StandardCharsets.UTF_8);
+            idLength += ids[u].length;
+        }
+        long size = 7 * 4L
+                + 4 + (image == null ? 0 : image.length)
+                + 4L * (n + 1) + idLength
+                + 4L * n * 2 + 4L * (n + 1) + 4L * arcs
+                + 16L * custom
+                + 8L * ((n + 63) / 64);
+        if (size > Integer.MAX_VALUE) throw new IOException("Grafo demasiado grande para el formato binario");
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            ByteBuffer b = map.order(ByteOrder.LITTLE_ENDIAN);
+            b.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(n).putInt(arcs).putInt(custom)
+             .putInt(g.indexOf(g.getStart())).putInt(g.indexOf(g.getEnd()));
+
+            if (image == null) {
+                b.putInt(-1);
+            } else {
+                b.putInt(image.length).put(image);
+            }
+
+            int offset = 0;
+            for (int u = 0; u < n; u++) {
+                b.putInt(offset);
+                offset += ids[u].length;
+            }
+            b.putInt(offset);
+            for (byte[] id : ids) b.put(id);
+
+            for (int u = 0; u < n; u++) b.putInt(g.nodeAt(u).x);
+            for (int u = 0; u < n; u++) b.putInt(g.nodeAt(u).y);
+            offset = 0;
+            for (int u = 0; u < n; u++) {
+                b.putInt(offset);
+                offset += g.degree(u);
+            }
+            b.putInt(offset);
+            for (int u = 0; u < n; u++) {
+                for (int k = 0; k < g.degree(u); k++) b.putInt(g.neighbor(u, k));
+            }
+
+            for (int u = 0; u < n; u++) {
+                for (int k = 0; k < g.degree(u); k++) {
+                    int v = g.neighbor(u, k);
+                    if (u < v && g.hasCustomWeight(u, v)) b.putInt(u).putInt(v).putDouble(g.weight(u, v));
+                }
+            }
+
+            long[] words = g.blockedBits().toLongArray();
+            for (int w = 0; w < (n + 63) / 64; w++) b.putLong(w < words.length ? words[w] : 0);
+            map.force();
+        }
+    }
+
+    // Reemplaza el contenido de g; devuelve la ruta de la imagen de fondo (o null)
+    static String read(File file, Graph g) throws IOException {
+        ByteBuffer b;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Archivo demasiado grande");
+            b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        try {
+            if (b.getInt() != MAGIC) throw new IOException("No es un grafo binario");
+            int version = b.getInt();
+            if (version != FORMAT_VERSION) throw new IOException("Versión de formato no soportada: " + version);
+            int n = b.getInt(), arcs = b.getInt(), custom = b.getInt();
+            int start = b.getInt(), end = b.getInt();
+            if (n < 0 || arcs < 0 || custom < 0) throw new IOException("Cabecera inválida");
+
+            // todo lo que no son ids ni imagen tiene tamaño fijo según la cabecera: se compara
+            // con lo que queda del archivo antes de reservar nada
+            long fixed = 4L * (n + 1L) + 4L * n * 2 + 4L * (n + 1L) + 4L * arcs
+                    + 16L * custom + 8L * ((n + 63L) / 64);
+            int imageLength = b.getInt();
+            if (imageLength < -1 || fixed + Math.max(imageLength, 0) > b.remaining())
+                throw new IOException("Cabecera inválida");
+            String image = null;
+            if (imageLength >= 0) image = utf8(b, imageLength);
+
+            int[] idOffsets = ints(b, n + 1);
+            if (idOffsets[0] != 0) throw new IOException("Cabecera inválida");
+            for (int u = 0; u < n; u++) {
+                if (idOffsets[u + 1] < idOffsets[u]) throw new IOException("Cabecera inválida");
+            }
+            if (idOffsets[n] > b.remaining() - (fixed - 4L * (n + 1L))) throw new IOException("Cabecera inválida");
+            int idBase = b.position();
+            List<Node> nodes = new ArrayList<>(n);
+            String[] ids = new String[n];
+            for (int u = 0; u < n; u++) {
+                b.position(idBase + idOffsets[u]);
+                ids[u] = utf8(b, idOffsets[u + 1] - idOffsets[u]);
+            }
+            b.position(idBase + idOffsets[n]);
+
+            int[] xs = ints(b, n), ys = ints(b, n);
+            for (int u = 0; u < n; u++) nodes.add(new Node(ids[u], xs[u], ys[u]));
+            int[] offsets = ints(b, n + 1);
+            int[] targets = ints(b, arcs);
+            if (offsets[0] != 0 || offsets[n] != arcs) throw new IOException("Adyacencia inconsistente");
+            for (int u = 0; u < n; u++) {
+                if (offsets[u + 1] < offsets[u]) throw new IOException("Adyacencia inconsistente");
+            }
+            checkAdjacency(n, offsets, targets);
+
+            Map<Long, Double> weights = new HashMap<>(custom * 2);
+            for (int i = 0; i < custom; i++) {
+                int u = b.getInt(), v = b.getInt();
+                double w = b.getDouble();
+                if (u < 0 || u >= n || v < 0 || v >= n || !adjacent(offsets, targets, u, v))
+                    throw new IOException("Peso para una arista inexistente: " + u + "-" + v);
+                if (!(w > 0) || Double.isInfinite(w))
+                    throw new IOException("Peso inválido para " + u + "-" + v + ": " + w);
+                if (weights.put(((long) Math.min(u, v) << 32) | Math.max(u, v), w) != null)
+                    throw new IOException("Peso repetido para " + u + "-" + v);
+            }
+
+            long[] words = new long[(n + 63) / 64];
+            b.asLongBuffer().get(words);
+            BitSet blocked = BitSet.valueOf(words);
+            if (blocked.length() > n) throw new IOException("Bloqueo fuera de rango: " + (blocked.length() - 1));
+
+            g.load(nodes, offsets, targets, weights, blocked);
+            if (start >= 0 && start < n) g.setStart(ids[start]);
+            if (end >= 0 && end < n) g.setEnd(ids[end]);
+            return image;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new IOException("Archivo binario dañado o truncado", ex);
+        }
+    }
+
+    // Las listas de vecinos deben describir un grafo no dirigido simple: vecinos en rango,
+    // sin lazos, sin repetidos y con cada arco u->v acompañado de v->u
+    private static void checkAdjacency(int n, int[] offsets, int[] targets) throws IOException {
+        for (int v : targets) {
+            if (v < 0 || v >= n) throw new IOException("Vecino fuera de rango: " + v);
+        }
+        // adyacencia traspuesta (quién apunta a cada nodo), por conteo
+        int[] inOffsets = new int[n + 1];
+        for (int v : targets) inOffsets[v + 1]++;
+        for (int v = 0; v < n; v++) inOffsets[v + 1] += inOffsets[v];
+        int[] sources = new int[targets.length], fill = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) sources[fill[targets[i]]++] = u;
+        }
+
+        int[] mark = new int[n];        // mark[v] == u + 1 si v ya apareció como vecino de u
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (v == u) throw new IOException("Arista de " + u + " a sí mismo");
+                if (mark[v] == u + 1) throw new IOException("Vecino repetido: " + u + "-" + v);
+                mark[v] = u + 1;
+            }
+            // sin repetidos, simétrico equivale a: mismo grado de entrada y salida y cada
+            // nodo que apunta a u está entre los vecinos de u
+            if (inOffsets[u + 1] - inOffsets[u] != offsets[u + 1] - offsets[u])
+                throw new IOException("Adyacencia asimétrica en " + u);
+            for (int i = inOffsets[u]; i < inOffsets[u + 1]; i++) {
+                if (mark[sources[i]] != u + 1) throw new IOException("Adyacencia asimétrica: " + sources[i] + "-" + u);
+            }
+        }
+    }
+
+    private static boolean adjacent(int[] offsets, int[] targets, int u, int v) {
+        for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+            if (targets[i] == v) return true;
+        }
+        return false;
+    }
+
+    private static int[] ints(ByteBuffer b, int count) {
+        int[] out = new int[count];
+        b.asIntBuffer().get(out);
+        b.position(b.position() + 4 * count);
+        return out;
+    }
+
+    private static String utf8(ByteBuffer b, int length) {
+        byte[] bytes = new byte[length];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,163 @@
+package model;
+
+import java.util.*;
+
+// Instantánea inmutable del grafo en formato CSR (compressed sparse row).
+// Cada nodo recibe un índice entero denso; los vecinos del nodo u son
+// targets[offsets[u] .. offsets[u + 1]). Los algoritmos recorren estos arreglos
+// en lugar de resolver cada vecino con búsquedas por String en los mapas de Graph.
+// Como no cambia nunca, puede leerse desde cualquier hilo mientras el grafo original
+// se sigue editando en el hilo de Swing.
+public final class CompactGraph implements RoutingGraph {
+
+    private final String[] ids;
+    private final Map<String, Integer> index;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] sortedTargets;   // mismos vecinos, ordenados por id (orden de DFS)
+    private final double[] weights;      // peso de cada arista, paralelo a targets
+    private final int[] xs, ys;
+    private final double heuristicScale;
+    private ContractionHierarchy hierarchy = null;   // preproceso opcional, bajo demanda
+    private long fingerprint = 0;                    // 0 = aún no calculada
+    private final BitSet blocked;
+    private final int[] component;       // etiqueta de componente conexa, -1 si está bloqueado
+
+    CompactGraph(Graph g) {
+        // los índices de la instantánea son los mismos índices densos de Graph
+        int n = g.nodeCount();
+        ids = new String[n];
+        index = new HashMap<>(n * 2);
+        blocked = g.blockedBits();
+        component = g.componentLabels();
+        xs = new int[n];
+        ys = new int[n];
+
+        for (int u = 0; u < n; u++) {
+            Node node = g.nodeAt(u);
+            ids[u] = node.id;
+            xs[u] = node.x;
+            ys[u] = node.y;
+            index.put(node.id, u);
+        }
+
+        offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + g.degree(u);
+
+        targets = new int[offsets[n]];
+        sortedTargets = new int[offsets[n]];
+        weights = new double[offsets[n]];
+        double scale = 1.0;
+        for (int u = 0; u < n; u++) {
+            int k = offsets[u];
+            for (int j = 0, d = g.degree(u); j < d; j++, k++) {
+                int v = g.neighbor(u, j);
+                targets[k] = v;
+                weights[k] = g.weight(u, v);
+                double straight = Math.hypot(xs[u] - xs[v], ys[u] - ys[v]);
+                if (straight > 0) scale = Math.min(scale, weights[k] / straight);
+            }
+            sortNeighborsById(offsets[u], offsets[u + 1]);
+        }
+        heuristicScale = scale;
+    }
+
+    // Misma estructura con otros bloqueos: comparte los arreglos (son de solo lectura)
+    private CompactGraph(CompactGraph base, BitSet blocked, int[] component) {
+        ids = base.ids;
+        index = base.index;
+        offsets = base.offsets;
+        targets = base.targets;
+        sortedTargets = base.sortedTargets;
+        weights = base.weights;
+        xs = base.xs;
+        ys = base.ys;
+        heuristicScale = base.heuristicScale;
+        synchronized (base) {
+            fingerprint = base.fingerprint;
+        }
+        this.blocked = blocked;
+        this.component = component;
+    }
+
+    CompactGraph withBlocked(BitSet blocked, int[] component) {
+        return new CompactGraph(this, blocked, component);
+    }
+
+    private void sortNeighborsById(int from, int to) {
+        System.arraycopy(targets, from, sortedTargets, from, to - from);
+        // insertion sort: los grados de un mapa de calles son pequeños
+        for (int i = from + 1; i < to; i++) {
+            int v = sortedTargets[i];
+            int j = i - 1;
+            while (j >= from && ids[sortedTargets[j]].compareTo(ids[v]) > 0) {
+                sortedTargets[j + 1] = sortedTargets[j];
+                j--;
+            }
+            sortedTargets[j + 1] = v;
+        }
+    }
+
+    public int size() { return ids.length; }
+
+    public int edgeCount() { return targets.length / 2; }
+
+    // Índice denso del nodo, o -1 si no existe
+    public int indexOf(String id) {
+        if (id == null) return -1;
+        Integer i = index.get(id);
+        return i == null ? -1 : i;
+    }
+
+    public String id(int u) { return ids[u]; }
+
+    public boolean isBlocked(int u) { return blocked.get(u); }
+
+    // true si existe un camino entre u y v que evite nodos bloqueados; -1 = inexistente
+    public boolean sameComponent(int u, int v) {
+        return u >= 0 && v >= 0 && component[u] >= 0 && component[u] == component[v];
+    }
+
+    public int x(int u) { return xs[u]; }
+    public int y(int u) { return ys[u]; }
+
+    // Factor (<= 1) que mantiene admisible la distancia en línea recta como heurística
+    // aunque haya aristas con un peso manual menor que su longitud euclídea
+    public double heuristicScale() { return heuristicScale; }
+
+    // Rango [begin, end) de vecinos de u en targets()/sortedTarget()
+    public int begin(int u) { return offsets[u]; }
+    public int end(int u) { return offsets[u + 1]; }
+
+    public int target(int i) { return targets[i]; }
+    public double weight(int i) { return weights[i]; }
+    public int sortedTarget(int i) { return sortedTargets[i]; }
+
+    // Jerarquía de contracción de esta instantánea; se construye en la primera consulta
+    public synchronized ContractionHierarchy hierarchy() {
+        if (hierarchy == null) hierarchy = new ContractionHierarchy(this);
+        return hierarchy;
+    }
+
+    public synchronized boolean hasHierarchy() { return hierarchy != null; }
+
+    // Huella de ids, aristas y pesos (no de los bloqueos) para validar datos
+    // precalculados guardados en disco, como las tablas de landmarks
+    public synchronized long fingerprint() {
+        if (fingerprint == 0) {
+            long h = 1125899906842597L;
+            for (String id : ids) h = 31 * h + id.hashCode();
+            for (int o : offsets) h = 31 * h + o;
+            for (int v : targets) h = 31 * h + v;
+            for (double w : weights) h = 31 * h + Double.doubleToLongBits(w);
+            fingerprint = (h == 0) ? 1 : h;
+        }
+        return fingerprint;
+    }
+
+    public List<String> toIds(int[] order, int count) {
+        List<String> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) out.add(ids[order[i]]);
+        return out;
+    }
+}
@@ -0,0 +1,66 @@
+package model;
+
+import java.util.Arrays;
+
+// Union-find sobre los índices densos de nodo (Node.getIndex) que etiqueta las
+// componentes conexas del grafo sin contar los nodos bloqueados.
+// Conectar o desbloquear solo une conjuntos; bloquear puede partir una componente,
+// cosa que union-find no sabe deshacer, así que Graph la marca para rehacerla
+// completa la próxima vez que se consulte.
+final class ComponentIndex {
+
+    private int[] parent = new int[16];
+    private int[] size = new int[16];
+    private int n = 0;
+    private int components = 0;     // componentes formadas por nodos no bloqueados
+
+    // Nuevo nodo (no bloqueado) como componente propia
+    void add() {
+        if (n == parent.length) {
+            parent = Arrays.copyOf(parent, n * 2);
+            size = Arrays.copyOf(size, n * 2);
+        }
+        parent[n] = n;
+        size[n] = 1;
+        n++;
+        components++;
+    }
+
+    // Deja cada nodo solo; activos = cuántos de ellos no están bloqueados
+    void reset(int nodeCount, int active) {
+        n = 0;
+        for (int i = 0; i < nodeCount; i++) add();
+        components = active;
+    }
+
+    void clear() {
+        n = 0;
+        components = 0;
+    }
+
+    // Un nodo que estaba bloqueado (y por tanto aislado) vuelve a contar
+    void activate() {
+        components++;
+    }
+
+    int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];      // compresión por mitades
+            v = parent[v];
+        }
+        return v;
+    }
+
+    void union(int a, int b) {
+        int ra = find(a), rb = find(b);
+        if (ra == rb) return;
+        if (size[ra] < size[rb]) {
+            int tmp = ra; ra = rb; rb = tmp;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+        components--;
+    }
+
+    int count() { return components; }
+}
@@ -0,0 +1,344 @@
+package model;
+
+import java.util.*;
+
+// Jerarquía de contracción (CH) sobre una instantánea del grafo.
+// Preproceso: se contraen los nodos de uno en uno (primero los "menos importantes")
+// y, cuando quitar un nodo v rompería el camino más corto u-v-w, se agrega un atajo
+// u-w que recuerda a v como nodo intermedio. Consulta: Dijkstra bidireccional que
+// solo sube de rango desde ambos extremos; los atajos se despliegan al final.
+// Los nodos bloqueados se excluyen al construir, por eso la jerarquía vive en la
+// instantánea y se vuelve a contraer cuando cambia el grafo o un bloqueo.
+public final class ContractionHierarchy {
+
+    // Límite de nodos asentados en cada búsqueda de testigo: menor al estimar prioridades,
+    // mayor al contraer de verdad para no agregar atajos innecesarios
+    private static final int SIMULATE_SETTLE_LIMIT = 50;
+    private static final int CONTRACT_SETTLE_LIMIT = 500;
+
+    private final RoutingGraph base;
+    private final int[] rank;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upMiddle;      // nodo intermedio del atajo, -1 si es arista original
+    private final double[] upWeights;
+    private int shortcutCount = 0;
+
+    // Listas de adyacencia mutables usadas solo durante la contracción; al contraer
+    // un nodo se quita de las listas de sus vecinos, así solo quedan nodos sin contraer
+    private int[][] adjTo;
+    private double[][] adjW;
+    private int[][] adjMid;
+    private int[] adjSize;
+
+    // Búsqueda de testigos reutilizable
+    private double[] wdist;
+    private boolean[] isTarget;
+    private int[] touched;
+    private int touchedCount;
+    private IndexedMinHeap wheap;
+
+    ContractionHierarchy(RoutingGraph cg) {
+        this.base = cg;
+        int n = cg.size();
+        adjTo = new int[n][];
+        adjW = new double[n][];
+        adjMid = new int[n][];
+        adjSize = new int[n];
+        for (int u = 0; u < n; u++) {
+            int cap = Math.max(2, cg.end(u) - cg.begin(u));
+            adjTo[u] = new int[cap];
+            adjW[u] = new double[cap];
+            adjMid[u] = new int[cap];
+        }
+        for (int u = 0; u < n; u++) {
+            if (cg.isBlocked(u)) continue;
+            for (int i = cg.begin(u), to = cg.end(u); i < to; i++) {
+                int v = cg.target(i);
+                if (!cg.isBlocked(v)) addOrImprove(u, v, cg.weight(i), -1);
+            }
+        }
+
+        wdist = new double[n];
+        Arrays.fill(wdist, Double.POSITIVE_INFINITY);
+        touched = new int[n];
+        isTarget = new boolean[n];
+        wheap = new IndexedMinHeap(n);
+
+        // Orden de contracción: diferencia de aristas + vecinos ya contraídos,
+        // con actualización perezosa de prioridades
+        rank = new int[n];
+        int[] deletedNeighbors = new int[n];
+        IndexedMinHeap order = new IndexedMinHeap(n);
+        for (int v = 0; v < n; v++) {
+            if (!cg.isBlocked(v)) order.insertOrDecrease(v, priority(v, 0));
+        }
+
+        int[][] upTo = new int[n][];
+        double[][] upW = new double[n][];
+        int[][] upMid = new int[n][];
+        int next = 0, steps = 0;
+        while (!order.isEmpty()) {
+            // contraer un mapa grande lleva segundos: se abandona si cancelan la búsqueda
+            Algorithms.checkCancelled(++steps);
+            int v = order.pollMin();
+            double p = priority(v, deletedNeighbors[v]);
+            if (p > order.minKey()) {
+                order.insertOrDecrease(v, p);
+                continue;
+            }
+            rank[v] = next++;
+
+            // Las aristas restantes de v van a nodos de rango mayor: forman su lista ascendente
+            int k = adjSize[v];
+            upTo[v] = Arrays.copyOf(adjTo[v], k);
+            upW[v] = Arrays.copyOf(adjW[v], k);
+            upMid[v] = Arrays.copyOf(adjMid[v], k);
+            for (int i = 0; i < k; i++) deletedNeighbors[adjTo[v][i]]++;
+
+            contract(v, false);
+            for (int i = 0; i < k; i++) removeArc(upTo[v][i], v);
+        }
+        for (int v = 0; v < n; v++) {
+            if (cg.isBlocked(v)) {
+                rank[v] = next++;
+                upTo[v] = new int[0];
+                upW[v] = new double[0];
+                upMid[v] = new int[0];
+            }
+        }
+
+        upOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) upOffsets[v + 1] = upOffsets[v] + upTo[v].length;
+        upTargets = new int[upOffsets[n]];
+        upWeights = new double[upOffsets[n]];
+        upMiddle = new int[upOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            System.arraycopy(upTo[v], 0, upTargets, upOffsets[v], upTo[v].length);
+            System.arraycopy(upW[v], 0, upWeights, upOffsets[v], upW[v].length);
+            System.arraycopy(upMid[v], 0, upMiddle, upOffsets[v], upMid[v].length);
+        }
+
+        // las estructuras de preproceso ya no se necesitan
+        adjTo = null;
+        adjW = null;
+        adjMid = null;
+        adjSize = null;
+        wdist = null;
+        isTarget = null;
+        touched = null;
+        wheap = null;
+    }
+
+    public int shortcutCount() { return shortcutCount; }
+
+    private double priority(int v, int deletedNeighbors) {
+        return contract(v, true) - adjSize[v] + deletedNeighbors;
+    }
+
+    // Agrega los atajos necesarios al quitar v (o solo los cuenta si simulate)
+    private int contract(int v, boolean simulate) {
+        int count = 0;
+        int settleLimit = simulate ? SIMULATE_SETTLE_LIMIT : CONTRACT_SETTLE_LIMIT;
+        for (int i = 0; i < adjSize[v]; i++) {
+            int u = adjTo[v][i];
+            double wu = adjW[v][i];
+
+            // solo interesan los pares (u, x) con x posterior a u en la lista de v
+            double maxVia = 0;
+            int targets = 0;
+            for (int j = i + 1; j < adjSize[v]; j++) {
+                maxVia = Math.max(maxVia, wu + adjW[v][j]);
+                isTarget[adjTo[v][j]] = true;
+                targets++;
+            }
+            if (targets == 0) continue;
+
+            witnessSearch(u, v, maxVia, settleLimit, targets);
+            for (int j = i + 1; j < adjSize[v]; j++) {
+                int x = adjTo[v][j];
+                isTarget[x] = false;
+                double via = wu + adjW[v][j];
+                if (wdist[x] > via) {
+                    count++;
+                    if (!simulate) {
+                        addOrImprove(u, x, via, v);
+                        shortcutCount++;
+                    }
+                }
+            }
+            resetWitness();
+        }
+        return count;
+    }
+
+    // Dijkstra local desde source sin pasar por skip; termina al asentar todos los
+    // destinos o al superar la distancia o el número de nodos permitidos
+    private void witnessSearch(int source, int skip, double limit, int settleLimit, int targets) {
+        touch(source, 0);
+        wheap.insertOrDecrease(source, 0);
+        int settledCount = 0;
+        while (!wheap.isEmpty()) {
+            int u = wheap.pollMin();
+            if (wdist[u] > limit || ++settledCount > settleLimit) break;
+            if (isTarget[u] && --targets == 0) break;
+            for (int i = 0; i < adjSize[u]; i++) {
+                int x = adjTo[u][i];
+                if (x == skip) continue;
+                double nd = wdist[u] + adjW[u][i];
+                if (nd < wdist[x]) {
+                    touch(x, nd);
+                    wheap.insertOrDecrease(x, nd);
+                }
+            }
+        }
+        wheap.clear();
+    }
+
+    private void touch(int v, double d) {
+        if (wdist[v] == Double.POSITIVE_INFINITY) touched[touchedCount++] = v;
+        wdist[v] = d;
+    }
+
+    private void resetWitness() {
+        for (int i = 0; i < touchedCount; i++) wdist[touched[i]] = Double.POSITIVE_INFINITY;
+        touchedCount = 0;
+    }
+
+    // Quita el arco u->v intercambiándolo con el último de la lista
+    private void removeArc(int u, int v) {
+        for (int i = 0; i < adjSize[u]; i++) {
+            if (adjTo[u][i] == v) {
+                int last = --adjSize[u];
+                adjTo[u][i] = adjTo[u][last];
+                adjW[u][i] = adjW[u][last];
+                adjMid[u][i] = adjMid[u][last];
+                return;
+            }
+        }
+    }
+
+    private void addOrImprove(int u, int v, double w, int mid) {
+        addOrImproveArc(u, v, w, mid);
+        addOrImproveArc(v, u, w, mid);
+    }
+
+    private void addOrImproveArc(int u, int v, double w, int mid) {
+        for (int i = 0; i < adjSize[u]; i++) {
+            if (adjTo[u][i] == v) {
+                if (w < adjW[u][i]) {
+                    adjW[u][i] = w;
+                    adjMid[u][i] = mid;
+                }
+                return;
+            }
+        }
+        if (adjSize[u] == adjTo[u].length) {
+            int cap = adjTo[u].length * 2;
+            adjTo[u] = Arrays.copyOf(adjTo[u], cap);
+            adjW[u] = Arrays.copyOf(adjW[u], cap);
+            adjMid[u] = Arrays.copyOf(adjMid[u], cap);
+        }
+        adjTo[u][adjSize[u]] = v;
+        adjW[u][adjSize[u]] = w;
+        adjMid[u][adjSize[u]] = mid;
+        adjSize[u]++;
+    }
+
+    // Consulta punto a punto: búsqueda ascendente desde ambos extremos
+    public SearchResult query(String start, String end) {
+        int s = base.indexOf(start), t = base.indexOf(end);
+        if (s < 0 || t < 0 || base.isBlocked(s) || base.isBlocked(t)) {
+            return new SearchResult(List.of(), List.of(), List.of(), "CH");
+        }
+
+        int n = base.size();
+        double[] distF = new double[n], distB = new double[n];
+        int[] parentF = new int[n], parentB = new int[n];
+        Arrays.fill(distF, Double.POSITIVE_INFINITY);
+        Arrays.fill(distB, Double.POSITIVE_INFINITY);
+        boolean[] seen = new boolean[n];
+        int[] order = new int[n];
+        int visitedCount = 0;
+
+        IndexedMinHeap heapF = new IndexedMinHeap(n), heapB = new IndexedMinHeap(n);
+        distF[s] = 0; parentF[s] = s; heapF.insertOrDecrease(s, 0);
+        distB[t] = 0; parentB[t] = t; heapB.insertOrDecrease(t, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        while (Math.min(heapF.minKey(), heapB.minKey()) < best) {
+            boolean forward = heapF.minKey() <= heapB.minKey();
+            IndexedMinHeap heap = forward ? heapF : heapB;
+            double[] dist = forward ? distF : distB;
+            double[] other = forward ? distB : distF;
+            int[] parent = forward ? parentF : parentB;
+
+            int u = heap.pollMin();
+            if (!seen[u]) {
+                seen[u] = true;
+                order[visitedCount++] = u;
+            }
+            if (dist[u] + other[u] < best) {
+                best = dist[u] + other[u];
+                meet = u;
+            }
+            for (int i = upOffsets[u], to = upOffsets[u + 1]; i < to; i++) {
+                int v = upTargets[i];
+                double nd = dist[u] + upWeights[i];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, nd);
+                }
+            }
+        }
+
+        if (meet < 0) return new SearchResult(List.of(), base.toIds(order, visitedCount), List.of(), "CH");
+
+        // Camino en la jerarquía: s .. meet .. t, con atajos todavía empaquetados
+        List<Integer> packed = new ArrayList<>();
+        for (int cur = meet; ; cur = parentF[cur]) {
+            packed.add(cur);
+            if (cur == s) break;
+        }
+        Collections.reverse(packed);
+        for (int cur = meet; cur != t; ) {
+            cur = parentB[cur];
+            packed.add(cur);
+        }
+
+        List<String> path = new ArrayList<>();
+        path.add(base.id(s));
+        int[] stack = new int[16];
+        for (int i = 0; i + 1 < packed.size(); i++) {
+            int sp = 0;
+            stack[sp++] = packed.get(i);
+            stack[sp++] = packed.get(i + 1);
+            while (sp > 0) {
+                int b = stack[--sp], a = stack[--sp];
+                int m = middleOf(a, b);
+                if (m < 0) {
+                    path.add(base.id(b));
+                } else {
+                    if (sp + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[sp++] = m;
+                    stack[sp++] = b;
+                    stack[sp++] = a;
+                    stack[sp++] = m;
+                }
+            }
+        }
+        return new SearchResult(path, base.toIds(order, visitedCount), List.of(), "CH");
+    }
+
+    // Nodo intermedio de la arista a-b en la jerarquía (-1 si es una arista original)
+    private int middleOf(int a, int b) {
+        int low = rank[a] < rank[b] ? a : b;
+        int high = (low == a) ? b : a;
+        for (int i = upOffsets[low], to = upOffsets[low + 1]; i < to; i++) {
+            if (upTargets[i] == high) return upMiddle[i];
+        }
+        throw new IllegalStateException("Arista inexistente en la jerarquía: " + a + "-" + b);
+    }
+}
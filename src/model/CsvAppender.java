@@ -0,0 +1,166 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Registro CSV que escribe en segundo plano: append() solo encola la línea (no toca el
+// disco ni bloquea al hilo que llama) y un hilo propio la escribe con un búfer, vaciándolo
+// cada vez que la cola queda vacía. Con la cola llena la línea se descarta y se cuenta.
+// Al pasar de maxBytes el archivo se rota (times.csv -> times.csv.1 -> ... -> .keep) y el
+// nuevo empieza con la cabecera. Al cerrar la JVM se escribe lo que quede en la cola.
+public final class CsvAppender implements Closeable {
+
+    private static final int DRAIN = 512;
+    private static final long CLOSE_WAIT_MS = 2000;
+    private static final String EOF = new String("EOF");     // marca de cierre, por identidad
+
+    private final File file;
+    private final String header;
+    private final long maxBytes;
+    private final int keep;
+    private final BlockingQueue<String> queue;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private volatile IOException error = null;
+    private volatile boolean closed = false;
+
+    private Writer out = null;
+    private long bytes = 0;
+
+    public CsvAppender(File file, String header, int capacity, long maxBytes, int keep) {
+        this.file = file;
+        this.header = header;
+        this.maxBytes = maxBytes;
+        this.keep = keep;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drainLoop, "registro-" + file.getName());
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "cierre-" + file.getName()));
+    }
+
+    // false si la línea no se va a escribir: cola llena, registro cerrado o error de disco
+    public boolean append(String line) {
+        if (closed || error != null) return false;
+        if (queue.offer(line)) return true;
+        dropped.increment();
+        return false;
+    }
+
+    public long droppedCount() { return dropped.sum(); }
+
+    // Último error de escritura, o null
+    public IOException error() { return error; }
+
+    public File getFile() { return file; }
+
+    // Escribe lo encolado y detiene el hilo (espera como mucho CLOSE_WAIT_MS)
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            if (queue.offer(EOF, CLOSE_WAIT_MS, TimeUnit.MILLISECONDS)) writer.join(CLOSE_WAIT_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<String> batch = new ArrayList<>(DRAIN);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, DRAIN - 1);
+                boolean eof = write(batch);
+                batch.clear();
+                if (eof) break;
+                // solo se vacía el búfer cuando no hay más líneas esperando
+                if (queue.isEmpty()) flush();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flush();
+            closeQuietly();
+        }
+    }
+
+    // Devuelve true si el lote traía la marca de cierre
+    private boolean write(List<String> batch) {
+        for (String line : batch) {
+            if (line == EOF) return true;
+            if (error != null) continue;
+            try {
+                if (out == null || bytes >= maxBytes) open(out != null);
+                out.write(line);
+                out.write('\n');
+                bytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            } catch (IOException ex) {
+                error = ex;
+                closeQuietly();
+            }
+        }
+        return false;
+    }
+
+    private void open(boolean rotate) throws IOException {
+        closeQuietly();
+        if (rotate) rotate();
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) throw new IOException("No se pudo crear " + dir);
+        boolean fresh = !file.exists() || file.length() == 0;
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), 1 << 16);
+        bytes = file.length();
+        if (fresh && header != null) {
+            out.write(header);
+            out.write('\n');
+            bytes += header.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+    }
+
+    // times.csv.(keep-1) -> .keep, ..., times.csv -> .1; el más viejo se pierde
+    private void rotate() throws IOException {
+        File oldest = rotated(keep);
+        if (oldest.exists() && !oldest.delete()) throw new IOException("No se pudo borrar " + oldest);
+        for (int i = keep - 1; i >= 1; i--) {
+            File f = rotated(i);
+            if (f.exists() && !f.renameTo(rotated(i + 1))) throw new IOException("No se pudo renombrar " + f);
+        }
+        if (keep == 0) {
+            if (!file.delete()) throw new IOException("No se pudo borrar " + file);
+        } else if (!file.renameTo(rotated(1))) {
+            throw new IOException("No se pudo renombrar " + file);
+        }
+    }
+
+    private File rotated(int i) {
+        return new File(file.getPath() + "." + i);
+    }
+
+    private void flush() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException ex) {
+            error = ex;
+            closeQuietly();
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // ya se informó el error de escritura, si lo hubo
+        }
+        out = null;
+    }
+}
@@ -0,0 +1,178 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Matriz de distancias muchos-a-muchos (depósitos x paradas) sobre una instantánea.
+// Cada origen ejecuta un Dijkstra uno-a-todos que se detiene al asentar todos los
+// destinos; los orígenes se reparten en paralelo en un ForkJoinPool y cada hilo
+// reutiliza sus arreglos de trabajo entre orígenes en lugar de asignarlos por consulta.
+public final class DistanceMatrix {
+
+    private final RoutingGraph graph;
+    private final List<String> sources;
+    private final List<String> targets;
+    private final float[][] dist;        // dist[i][j], infinito si no hay ruta
+    private final Chains[] parents;      // por origen, solo los caminos a los destinos; null si no se pidió
+
+    // Unión de los caminos de un origen hacia sus destinos: nodes ordenado (búsqueda binaria)
+    // y parents[k] el anterior de nodes[k]. Ocupa lo que suman esos caminos, no O(n).
+    private record Chains(int[] nodes, int[] parents) {
+        int parentOf(int v) {
+            return parents[Arrays.binarySearch(nodes, v)];
+        }
+    }
+
+    private DistanceMatrix(RoutingGraph graph, List<String> sources, List<String> targets,
+                           float[][] dist, Chains[] parents) {
+        this.graph = graph;
+        this.sources = sources;
+        this.targets = targets;
+        this.dist = dist;
+        this.parents = parents;
+    }
+
+    public static DistanceMatrix compute(Graph g, List<String> sources, List<String> targets,
+                                         boolean keepPaths) {
+        return compute(g.snapshot(), sources, targets, keepPaths, ForkJoinPool.commonPool());
+    }
+
+    public static DistanceMatrix compute(RoutingGraph cg, List<String> sources, List<String> targets,
+                                         boolean keepPaths, ForkJoinPool pool) {
+        int[] src = toIndices(cg, sources);
+        int[] dst = toIndices(cg, targets);
+        float[][] dist = new float[src.length][dst.length];
+        Chains[] parents = keepPaths ? new Chains[src.length] : null;
+
+        int n = cg.size();
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        pool.submit(() -> IntStream.range(0, src.length).parallel().forEach(i -> {
+            Scratch sc = scratch.get();
+            sc.run(cg, src[i], dst, dist[i]);
+            if (keepPaths) parents[i] = sc.chains(src[i], dst);
+        })).join();
+
+        return new DistanceMatrix(cg, List.copyOf(sources), List.copyOf(targets), dist, parents);
+    }
+
+    private static int[] toIndices(RoutingGraph cg, List<String> ids) {
+        int[] out = new int[ids.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = cg.indexOf(ids.get(i));
+            if (out[i] < 0) throw new IllegalArgumentException("Nodo inexistente: " + ids.get(i));
+        }
+        return out;
+    }
+
+    public List<String> getSources() { return sources; }
+    public List<String> getTargets() { return targets; }
+
+    // Matriz densa [orígenes][destinos]; Float.POSITIVE_INFINITY = sin ruta
+    public float[][] distances() { return dist; }
+
+    public float distance(int sourceIdx, int targetIdx) { return dist[sourceIdx][targetIdx]; }
+
+    public boolean hasPaths() { return parents != null; }
+
+    // Camino entre el origen i y el destino j (requiere keepPaths); vacío si no hay ruta
+    public List<String> path(int sourceIdx, int targetIdx) {
+        if (parents == null) throw new IllegalStateException("La matriz se calculó sin caminos");
+        if (Float.isInfinite(dist[sourceIdx][targetIdx])) return List.of();
+        int s = graph.indexOf(sources.get(sourceIdx));
+        Chains chains = parents[sourceIdx];
+        List<String> path = new ArrayList<>();
+        for (int cur = graph.indexOf(targets.get(targetIdx)); ; cur = chains.parentOf(cur)) {
+            path.add(graph.id(cur));
+            if (cur == s) break;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // Arreglos de trabajo de un hilo. Una marca de época por nodo evita limpiar
+    // los n elementos entre orígenes: solo valen las entradas con la época actual.
+    private static final class Scratch {
+        final double[] dist;
+        final int[] parent;
+        final int[] stamp;
+        final int[] chainStamp;         // nodos ya incluidos en los caminos del origen actual
+        final boolean[] isTarget;
+        final IndexedMinHeap heap;
+        int epoch = 0;
+
+        Scratch(int n) {
+            dist = new double[n];
+            parent = new int[n];
+            stamp = new int[n];
+            chainStamp = new int[n];
+            isTarget = new boolean[n];
+            heap = new IndexedMinHeap(n);
+        }
+
+        void run(RoutingGraph cg, int s, int[] targets, float[] out) {
+            epoch++;
+            int remaining = 0;
+            for (int t : targets) {
+                if (!isTarget[t]) {
+                    isTarget[t] = true;
+                    remaining++;
+                }
+            }
+
+            if (!cg.isBlocked(s)) {
+                reach(s, 0, s);
+                heap.insertOrDecrease(s, 0);
+            }
+            while (!heap.isEmpty() && remaining > 0) {
+                int u = heap.pollMin();
+                if (isTarget[u]) {
+                    isTarget[u] = false;
+                    remaining--;
+                }
+                for (int i = cg.begin(u), to = cg.end(u); i < to; i++) {
+                    int v = cg.target(i);
+                    if (cg.isBlocked(v)) continue;
+                    double nd = dist[u] + cg.weight(i);
+                    if (stamp[v] != epoch || nd < dist[v]) {
+                        reach(v, nd, u);
+                        heap.insertOrDecrease(v, nd);
+                    }
+                }
+            }
+            heap.clear();
+
+            for (int j = 0; j < targets.length; j++) {
+                int t = targets[j];
+                isTarget[t] = false;
+                out[j] = (stamp[t] == epoch) ? (float) dist[t] : Float.POSITIVE_INFINITY;
+            }
+        }
+
+        private void reach(int v, double d, int from) {
+            stamp[v] = epoch;
+            dist[v] = d;
+            parent[v] = from;
+        }
+
+        // Recorre hacia atrás desde cada destino alcanzado hasta el origen o hasta un nodo ya
+        // recorrido, así los tramos compartidos se guardan una sola vez
+        Chains chains(int s, int[] targets) {
+            int count = 0;
+            int[] nodes = new int[Math.min(16, parent.length)];
+            for (int t : targets) {
+                if (stamp[t] != epoch) continue;
+                for (int cur = t; cur != s && chainStamp[cur] != epoch; cur = parent[cur]) {
+                    chainStamp[cur] = epoch;
+                    if (count == nodes.length) nodes = Arrays.copyOf(nodes, 2 * count);
+                    nodes[count++] = cur;
+                }
+            }
+            nodes = Arrays.copyOf(nodes, count);
+            Arrays.sort(nodes);
+            int[] parents = new int[count];
+            for (int k = 0; k < count; k++) parents[k] = parent[nodes[k]];
+            return new Chains(nodes, parents);
+        }
+    }
+}
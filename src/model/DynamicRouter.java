@@ -0,0 +1,162 @@
+package model;
+
+import java.util.*;
+
+// Re-ruteo incremental con Lifelong Planning A* (LPA*) para un par inicio/destino fijo.
+// Conserva g/rhs de la búsqueda anterior; cuando un nodo se bloquea o desbloquea solo
+// se vuelven inconsistentes ese nodo y sus vecinos, y computePath() repara únicamente
+// la parte afectada del árbol en lugar de repetir la búsqueda completa.
+// Los bloqueos se guardan en una copia propia; la estructura (nodos, aristas, pesos)
+// es la de la instantánea con la que se creó.
+public final class DynamicRouter {
+
+    private final CompactGraph cg;
+    private final long structureVersion;
+    private final int start, goal;
+    private final String startId, goalId;
+    private final BitSet blocked;
+    private final double[] g, rhs;
+    private final IndexedMinHeap open;
+    private final double scale;
+
+    private final int[] expanded;       // nodos expandidos en la última reparación
+    private final int[] expandedStamp;
+    private int expandedCount = 0, round = 0;
+
+    public DynamicRouter(Graph graph, String startId, String goalId) {
+        this(graph.snapshot(), graph.getStructureVersion(), startId, goalId);
+    }
+
+    // Sobre una instantánea ya tomada, para construirlo fuera del hilo de Swing;
+    // structureVersion es la de Graph en el momento de la instantánea
+    public DynamicRouter(CompactGraph cg, long structureVersion, String startId, String goalId) {
+        this.cg = cg;
+        this.structureVersion = structureVersion;
+        this.startId = startId;
+        this.goalId = goalId;
+        this.start = cg.indexOf(startId);
+        this.goal = cg.indexOf(goalId);
+        if (start < 0 || goal < 0) throw new IllegalArgumentException("Inicio o destino inexistente");
+
+        int n = cg.size();
+        blocked = new BitSet(n);
+        for (int v = 0; v < n; v++) if (cg.isBlocked(v)) blocked.set(v);
+        g = new double[n];
+        rhs = new double[n];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        Arrays.fill(rhs, Double.POSITIVE_INFINITY);
+        open = new IndexedMinHeap(n, true);
+        scale = cg.heuristicScale();
+        expanded = new int[n];
+        expandedStamp = new int[n];
+
+        rhs[start] = 0;
+        push(start);
+    }
+
+    // true si el router sigue siendo válido para ese grafo y esos extremos
+    public boolean matches(Graph graph, String startId, String goalId) {
+        return graph.getStructureVersion() == structureVersion
+                && this.startId.equals(startId) && this.goalId.equals(goalId);
+    }
+
+    // Registra el cambio de bloqueo de un nodo; el costo es O(grado)
+    public void setBlocked(String id, boolean isBlocked) {
+        int v = cg.indexOf(id);
+        if (v < 0 || blocked.get(v) == isBlocked) return;
+        blocked.set(v, isBlocked);
+        updateVertex(v);
+        for (int i = cg.begin(v), to = cg.end(v); i < to; i++) updateVertex(cg.target(i));
+    }
+
+    // La primera llamada equivale a un A* completo y abandona con CancellationException si
+    // interrumpen el hilo; las siguientes solo reparan lo que cambió
+    public SearchResult computePath() {
+        round++;
+        int steps = 0;
+        expandedCount = 0;
+        if (blocked.get(start) || blocked.get(goal)) {
+            return new SearchResult(List.of(), List.of(), List.of(), "LPA*");
+        }
+
+        while (!open.isEmpty()
+                && (keyLess(open.minKey(), open.minKey2(), key1(goal), key2(goal)) || rhs[goal] != g[goal])) {
+            Algorithms.checkCancelled(++steps);
+            int u = open.pollMin();
+            markExpanded(u);
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                for (int i = cg.begin(u), to = cg.end(u); i < to; i++) updateVertex(cg.target(i));
+            } else {
+                g[u] = Double.POSITIVE_INFINITY;
+                updateVertex(u);
+                for (int i = cg.begin(u), to = cg.end(u); i < to; i++) updateVertex(cg.target(i));
+            }
+        }
+
+        return new SearchResult(extractPath(), cg.toIds(expanded, expandedCount), List.of(), "LPA*");
+    }
+
+    private void markExpanded(int u) {
+        if (expandedStamp[u] != round) {
+            expandedStamp[u] = round;
+            expanded[expandedCount++] = u;
+        }
+    }
+
+    private void updateVertex(int u) {
+        if (u != start) {
+            double best = Double.POSITIVE_INFINITY;
+            if (!blocked.get(u)) {
+                for (int i = cg.begin(u), to = cg.end(u); i < to; i++) {
+                    int v = cg.target(i);
+                    if (blocked.get(v)) continue;
+                    best = Math.min(best, g[v] + cg.weight(i));
+                }
+            }
+            rhs[u] = best;
+        }
+        open.remove(u);
+        if (g[u] != rhs[u]) push(u);
+    }
+
+    private void push(int u) {
+        open.insertOrUpdate(u, key1(u), key2(u));
+    }
+
+    private double key2(int u) { return Math.min(g[u], rhs[u]); }
+
+    private double key1(int u) {
+        return key2(u) + scale * Math.hypot(cg.x(u) - cg.x(goal), cg.y(u) - cg.y(goal));
+    }
+
+    private static boolean keyLess(double a1, double a2, double b1, double b2) {
+        return a1 < b1 || (a1 == b1 && a2 < b2);
+    }
+
+    // Recorre del destino al inicio eligiendo el vecino que da g(destino)
+    private List<String> extractPath() {
+        if (g[goal] == Double.POSITIVE_INFINITY) return List.of();
+        List<String> path = new ArrayList<>();
+        int cur = goal;
+        path.add(cg.id(cur));
+        while (cur != start) {
+            int next = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = cg.begin(cur), to = cg.end(cur); i < to; i++) {
+                int v = cg.target(i);
+                if (blocked.get(v)) continue;
+                double d = g[v] + cg.weight(i);
+                if (d < best) {
+                    best = d;
+                    next = v;
+                }
+            }
+            if (next < 0 || path.size() > cg.size()) return List.of();
+            cur = next;
+            path.add(cg.id(cur));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,64 @@
+package model;
+
+import java.util.List;
+
+// Acumula visitas y aristas de una búsqueda y se las entrega al ExplorationListener
+// por lotes. Una vez que el oyente pide parar, visit() y edge() devuelven false.
+final class ExplorationBuffer {
+
+    private final RoutingGraph g;
+    private final ExplorationListener listener;
+    private final int[] nodes = new int[ExplorationListener.BATCH];
+    private final int[] from = new int[ExplorationListener.BATCH];
+    private final int[] to = new int[ExplorationListener.BATCH];
+    private int nodeCount = 0, edgeCount = 0;
+    private int visited = 0;
+    private boolean stopped = false;
+
+    ExplorationBuffer(RoutingGraph g, ExplorationListener listener) {
+        this.g = g;
+        this.listener = listener;
+    }
+
+    // null si no hay oyente: los algoritmos guardan entonces el orden completo
+    static ExplorationBuffer of(RoutingGraph g, ExplorationListener listener) {
+        return listener == null ? null : new ExplorationBuffer(g, listener);
+    }
+
+    boolean visit(int u) {
+        visited++;
+        nodes[nodeCount++] = u;
+        if (nodeCount == nodes.length) flushNodes();
+        return !stopped;
+    }
+
+    boolean edge(int u, int v) {
+        from[edgeCount] = u;
+        to[edgeCount++] = v;
+        if (edgeCount == from.length) flushEdges();
+        return !stopped;
+    }
+
+    boolean stopped() { return stopped; }
+
+    int visitedCount() { return visited; }
+
+    // Entrega lo pendiente y, si hay ruta, la avisa; sin ruta si el oyente pidió parar
+    List<String> finish(List<String> path) {
+        flushNodes();
+        flushEdges();
+        if (stopped) return List.of();
+        if (!path.isEmpty()) listener.onFound(g, path);
+        return path;
+    }
+
+    private void flushNodes() {
+        if (nodeCount > 0 && !stopped && !listener.onVisited(g, nodes, nodeCount)) stopped = true;
+        nodeCount = 0;
+    }
+
+    private void flushEdges() {
+        if (edgeCount > 0 && !stopped && !listener.onEdges(g, from, to, edgeCount)) stopped = true;
+        edgeCount = 0;
+    }
+}
@@ -0,0 +1,24 @@
+package model;
+
+import java.util.List;
+
+// Recibe la exploración de una búsqueda mientras avanza, por lotes de hasta BATCH nodos o
+// aristas, en lugar de las listas completas de SearchResult (que en mapas de millones de
+// nodos ocupan cientos de MB). Los índices son los de la RoutingGraph recibida y los
+// arreglos se reutilizan entre lotes: hay que copiar lo que se quiera conservar.
+// Devolver false detiene la búsqueda, que termina sin ruta.
+public interface ExplorationListener {
+
+    int BATCH = 1024;
+
+    // nodes[0..count) en el mismo orden que getVisitedOrder() de la versión sin lotes
+    boolean onVisited(RoutingGraph g, int[] nodes, int count);
+
+    // Aristas from[i] -> to[i] por las que la búsqueda llegó a un nodo
+    default boolean onEdges(RoutingGraph g, int[] from, int[] to, int count) {
+        return true;
+    }
+
+    // Solo si hay ruta y la búsqueda no se detuvo; después del último lote
+    default void onFound(RoutingGraph g, List<String> path) { }
+}
@@ -2,38 +2,266 @@ package model;
 
 import java.util.*;
 
+// Grafo editable. Solo debe modificarse y leerse desde el hilo de Swing; las
+// búsquedas en segundo plano trabajan sobre la instantánea inmutable de snapshot().
+// Internamente cada nodo es un índice entero denso (Node.getIndex, en orden de
+// inserción) y la adyacencia son arreglos de int por nodo; los ids String solo se
+// usan en el diccionario id -> nodo, es decir, en la frontera con archivos y vista.
 public class Graph {
-    private final Map<String, Node> nodes = new LinkedHashMap<>();
-    private final Map<String, Set<String>> adj = new LinkedHashMap<>();
+    private static final int[] NO_NEIGHBORS = new int[0];
+
+    private final Map<String, Node> nodes = new HashMap<>();      // diccionario id -> nodo
+    private final List<Node> byIndex = new ArrayList<>();          // índice -> nodo
+    private int[][] adjacency = new int[16][];     // vecinos de cada índice, en orden de conexión
+    private int[] degree = new int[16];            // posiciones usadas de cada adjacency[u]
+    // Pesos fijados a mano, con clave (índice menor, índice mayor); las demás aristas
+    // miden la distancia euclídea entre sus nodos
+    private final Map<Long, Double> customWeights = new HashMap<>();
     private String startId = null;
     private String endId = null;
+    private CompactGraph snapshot = null;   // se reconstruye solo tras una mutación
+    private long version = 0;               // aumenta con cada mutación del grafo
+    private long structureVersion = 0;      // igual, pero sin contar los bloqueos
+    private final SpatialGrid spatial = new SpatialGrid(64);   // búsquedas por posición
+    private final BitSet blocked = new BitSet();    // bloqueos por índice de nodo
+    private boolean blockedDirty = false;   // la instantánea solo necesita bloqueos nuevos
+    // Contadores incrementales para getStats(); no hay borrado de aristas salvo clear()
+    private int edgeCount = 0, blockedCount = 0, maxDegree = 0, isolatedCount = 0;
+    private long nodeBytes = 0, edgeBytes = 0;     // estimación de memoria, ver MemoryEstimate
+    // Componentes conexas sin nodos bloqueados; tras un bloqueo se rehacen al consultarlas
+    private final ComponentIndex components = new ComponentIndex();
+    private boolean componentsDirty = false;
 
     public Collection<Node> getNodes() {
-         return nodes.values(); }
-    public Map<String, Set<String>> getAdjacency() {
-         return adj; }
+         return Collections.unmodifiableList(byIndex); }
     public Node getNode(String id) { 
         return nodes.get(id); }
     public boolean contains(String id) { 
         return nodes.containsKey(id); }
 
+    // --- Acceso por índice denso ---
+
+    public int nodeCount() { return byIndex.size(); }
+
+    // Índice del nodo, o -1 si no existe
+    public int indexOf(String id) {
+        Node n = nodes.get(id);
+        return n == null ? -1 : n.index;
+    }
+
+    public Node nodeAt(int u) { return byIndex.get(u); }
+
+    public int degree(int u) { return degree[u]; }
+
+    // k-ésimo vecino de u (0 <= k < degree(u))
+    public int neighbor(int u, int k) { return adjacency[u][k]; }
+
+    // Vecinos como ids, en orden de conexión; para archivos y vista
+    public List<String> neighbors(String id) {
+        Node n = nodes.get(id);
+        if (n == null) return List.of();
+        List<String> out = new ArrayList<>(degree[n.index]);
+        for (int k = 0; k < degree[n.index]; k++) out.add(byIndex.get(adjacency[n.index][k]).id);
+        return out;
+    }
+
+    // Versión de mutación: cambia en addNode, connect, pesos, movimientos, bloqueos y clear
+    public long getVersion() {
+        return version; }
+
+    // Versión de estructura: nodos, aristas, pesos y posiciones (no bloqueos)
+    public long getStructureVersion() {
+        return structureVersion; }
+
+    private void changed() {
+        structureVersion++;
+        version++;
+        snapshot = null;
+    }
+
+    private void blockedChanged() {
+        version++;
+        blockedDirty = true;
+    }
+
+    // Si solo cambiaron bloqueos, la nueva instantánea comparte los arreglos CSR
+    // de la anterior y únicamente copia el BitSet
+    public CompactGraph snapshot() {
+        if (snapshot == null) {
+            snapshot = new CompactGraph(this);
+        } else if (blockedDirty) {
+            snapshot = snapshot.withBlocked(blockedBits(), componentLabels());
+        }
+        blockedDirty = false;
+        return snapshot;
+    }
+
+    // Copia de los bloqueos indexada por Node.getIndex()
+    BitSet blockedBits() {
+        return (BitSet) blocked.clone();
+    }
+
     public void addNode(Node n) {
         if (nodes.containsKey(n.id)) 
             return;
+        int u = byIndex.size();
+        if (u == degree.length) {
+            adjacency = Arrays.copyOf(adjacency, u * 2);
+            degree = Arrays.copyOf(degree, u * 2);
+        }
+        adjacency[u] = NO_NEIGHBORS;
+        n.index = u;
+        byIndex.add(n);
         nodes.put(n.id, n);
-        adj.put(n.id, new LinkedHashSet<>());
+        spatial.insert(n);
+        components.add();
+        isolatedCount++;
+        nodeBytes += MemoryEstimate.node(n.id);
+        changed();
     }
 
     public void connect(String a, String b) {
-        if (!nodes.containsKey(a) || !nodes.containsKey(b) || a.equals(b)) return;
-        adj.get(a).add(b);
-        adj.get(b).add(a);
+        Node x = nodes.get(a), y = nodes.get(b);
+        if (x == null || y == null || x == y || hasEdge(x.index, y.index)) return;
+        append(x.index, y.index);
+        append(y.index, x.index);
+        edgeCount++;
+        degreeGrew(degree[x.index]);
+        degreeGrew(degree[y.index]);
+        if (!componentsDirty && !blocked.get(x.index) && !blocked.get(y.index)) {
+            components.union(x.index, y.index);
+        }
+        changed();
+    }
+
+    // La arista es simétrica: basta revisar la lista más corta
+    private boolean hasEdge(int u, int v) {
+        if (degree[v] < degree[u]) {
+            int tmp = u; u = v; v = tmp;
+        }
+        int[] list = adjacency[u];
+        for (int k = 0, d = degree[u]; k < d; k++) {
+            if (list[k] == v) return true;
+        }
+        return false;
+    }
+
+    private void append(int u, int v) {
+        int[] list = adjacency[u];
+        if (degree[u] == list.length) {
+            int grown = Math.max(4, list.length + (list.length >> 1));
+            edgeBytes += MemoryEstimate.intArrayGrowth(list.length, grown);
+            list = adjacency[u] = Arrays.copyOf(list, grown);
+        }
+        list[degree[u]++] = v;
+    }
+
+    private void degreeGrew(int degree) {
+        if (degree == 1) isolatedCount--;
+        if (degree > maxDegree) maxDegree = degree;
+    }
+
+    // Conecta a y b con un peso explícito en lugar de la longitud euclídea
+    public void connect(String a, String b, double weight) {
+        connect(a, b);
+        setWeight(a, b, weight);
+    }
+
+    public void setWeight(String a, String b, double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight))
+            throw new IllegalArgumentException("Peso inválido para " + a + "-" + b + ": " + weight);
+        Node x = nodes.get(a), y = nodes.get(b);
+        if (x == null || y == null || !hasEdge(x.index, y.index)) return;
+        if (customWeights.put(pairKey(x.index, y.index), weight) == null) {
+            edgeBytes += MemoryEstimate.CUSTOM_WEIGHT;
+        }
+        changed();
+    }
+
+    private static long pairKey(int u, int v) {
+        return u < v ? ((long) u << 32) | v : ((long) v << 32) | u;
+    }
+
+    public boolean hasCustomWeight(String a, String b) {
+        Node x = nodes.get(a), y = nodes.get(b);
+        return x != null && y != null && customWeights.containsKey(pairKey(x.index, y.index));
+    }
+
+    public boolean hasCustomWeight(int u, int v) {
+        return customWeights.containsKey(pairKey(u, v));
+    }
+
+    public double getWeight(String a, String b) {
+        return weight(nodes.get(a).index, nodes.get(b).index);
+    }
+
+    // Peso de la arista u-v por índices: el manual si lo hay, si no la distancia euclídea
+    public double weight(int u, int v) {
+        Double custom = customWeights.isEmpty() ? null : customWeights.get(pairKey(u, v));
+        if (custom != null) return custom;
+        Node na = byIndex.get(u), nb = byIndex.get(v);
+        return Math.hypot(na.x - nb.x, na.y - nb.y);
+    }
+
+    // Suma de pesos a lo largo de un camino (0 si está vacío)
+    public double pathLength(List<String> path) {
+        double total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) total += getWeight(path.get(i), path.get(i + 1));
+        return total;
+    }
+
+    // Carga en bloque (formato binario): reemplaza todo el contenido con la adyacencia
+    // CSR dada, conservando el orden de vecinos. Los pesos usan la clave (menor, mayor).
+    // blockedBits no se modifica.
+    void load(List<Node> newNodes, int[] offsets, int[] targets, Map<Long, Double> weights, BitSet blockedBits) {
+        clear();
+        for (Node n : newNodes) addNode(n);
+        int n = byIndex.size();
+        if (n != newNodes.size()) throw new IllegalArgumentException("Ids de nodo repetidos");
+
+        for (int u = 0; u < n; u++) {
+            int d = offsets[u + 1] - offsets[u];
+            if (d == 0) continue;
+            adjacency[u] = Arrays.copyOfRange(targets, offsets[u], offsets[u + 1]);
+            degree[u] = d;
+            edgeBytes += MemoryEstimate.intArrayGrowth(0, d);
+            isolatedCount--;
+            if (d > maxDegree) maxDegree = d;
+        }
+        edgeCount = targets.length / 2;
+        customWeights.putAll(weights);
+        edgeBytes += (long) weights.size() * MemoryEstimate.CUSTOM_WEIGHT;
+
+        blocked.or(blockedBits.get(0, n));
+        blockedCount = blocked.cardinality();
+        componentsDirty = true;
+        changed();
+    }
+
+    public void moveNode(String id, int x, int y) {
+        Node n = nodes.get(id);
+        if (n == null || (n.x == x && n.y == y)) return;
+        int oldX = n.x, oldY = n.y;
+        n.x = x;
+        n.y = y;
+        spatial.move(n, oldX, oldY);
+        changed();
     }
 
     public void clear() {
         nodes.clear();
-        adj.clear();
+        byIndex.clear();
+        adjacency = new int[16][];
+        degree = new int[16];
+        customWeights.clear();
+        spatial.clear();
+        blocked.clear();
+        edgeCount = blockedCount = maxDegree = isolatedCount = 0;
+        nodeBytes = edgeBytes = 0;
+        components.clear();
+        componentsDirty = false;
         startId = endId = null;
+        changed();
     }
 
     public void setStart(String id) { 
@@ -45,32 +273,133 @@ public class Graph {
     public String getEnd() { 
         return endId; }
 
-    public void setBlocked(String id, boolean blocked) {
+    public boolean isBlocked(String id) {
         Node n = nodes.get(id);
-        if (n != null) {
-            n.blocked = blocked;
+        return n != null && blocked.get(n.index);
+    }
+
+    public int getBlockedCount() {
+        return blockedCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    // Conteos y grados actuales, sin recorrer la adyacencia
+    public GraphStats getStats() {
+        return new GraphStats(nodes.size(), edgeCount, blockedCount, maxDegree, isolatedCount,
+                nodeBytes, edgeBytes);
+    }
+
+    public void setBlocked(String id, boolean isBlocked) {
+        Node n = nodes.get(id);
+        if (n != null && blocked.get(n.index) != isBlocked) {
+            setBit(n.index, isBlocked);
+            blockedChanged();
         }
     }
-    
+
     public void toggleBlocked(String id) {
         Node n = nodes.get(id);
         if (n != null) {
-            n.blocked = !n.blocked;
+            setBit(n.index, !blocked.get(n.index));
+            blockedChanged();
         }
     }
 
-    public Optional<String> encontrarIdNodoCercano(int x, int y, int radio) {
-        String mejorId = null;
-        double mejorDist2 = radio * radio;
-        for (Node n : nodes.values()) {
-            double dx = x - n.x;
-            double dy = y - n.y;
-            double d2 = dx*dx + dy*dy;
-            if (d2 <= mejorDist2) {
-                mejorDist2 = d2;
-                mejorId = n.id;
+    private void setBit(int index, boolean isBlocked) {
+        blocked.set(index, isBlocked);
+        blockedCount += isBlocked ? 1 : -1;
+        if (isBlocked) {
+            componentsDirty = true;
+        } else if (!componentsDirty) {
+            // desbloquear solo puede unir: el nodo vuelve como componente propia
+            // y se une a sus vecinos activos
+            components.activate();
+            for (int k = 0; k < degree[index]; k++) {
+                int v = adjacency[index][k];
+                if (!blocked.get(v)) components.union(index, v);
+            }
+        }
+    }
+
+    private ComponentIndex components() {
+        if (componentsDirty) {
+            int n = byIndex.size();
+            components.reset(n, n - blockedCount);
+            for (int u = 0; u < n; u++) {
+                if (blocked.get(u)) continue;
+                for (int k = 0; k < degree[u]; k++) {
+                    int v = adjacency[u][k];
+                    if (!blocked.get(v)) components.union(u, v);
+                }
+            }
+            componentsDirty = false;
+        }
+        return components;
+    }
+
+    // Etiqueta de la componente del nodo (índice de su representante), o -1 si no
+    // existe o está bloqueado
+    public int componentOf(String id) {
+        Node n = nodes.get(id);
+        if (n == null || blocked.get(n.index)) return -1;
+        return components().find(n.index);
+    }
+
+    // Etiquetas de componente por índice de nodo (-1 = bloqueado), para la instantánea
+    int[] componentLabels() {
+        ComponentIndex c = components();
+        int[] labels = new int[byIndex.size()];
+        for (int i = 0; i < labels.length; i++) labels[i] = blocked.get(i) ? -1 : c.find(i);
+        return labels;
+    }
+
+    // true si hay algún camino entre a y b que evite nodos bloqueados (O(1) amortizado)
+    public boolean sameComponent(String a, String b) {
+        int ca = componentOf(a);
+        return ca >= 0 && ca == componentOf(b);
+    }
+
+    public int getComponentCount() {
+        return components().count();
+    }
+
+    // Bloqueo/desbloqueo en lote: la versión aumenta una sola vez.
+    // Devuelve los ids cuyo estado cambió realmente.
+    public List<String> setBlocked(Collection<String> ids, boolean isBlocked) {
+        List<String> changedIds = new ArrayList<>();
+        for (String id : ids) {
+            Node n = nodes.get(id);
+            if (n != null && blocked.get(n.index) != isBlocked) {
+                setBit(n.index, isBlocked);
+                changedIds.add(id);
             }
         }
-        return Optional.ofNullable(mejorId);
+        if (!changedIds.isEmpty()) blockedChanged();
+        return changedIds;
+    }
+
+    // Bloquea o desbloquea toda una zona circular del mapa
+    public List<String> setBlockedInRadius(int x, int y, int radio, boolean isBlocked) {
+        List<String> ids = new ArrayList<>();
+        for (Node n : spatial.withinRadius(x, y, radio)) ids.add(n.id);
+        return setBlocked(ids, isBlocked);
+    }
+
+    public Optional<String> encontrarIdNodoCercano(int x, int y, int radio) {
+        Node n = spatial.nearest(x, y, radio);
+        return Optional.ofNullable(n == null ? null : n.id);
+    }
+
+    // Nodos a distancia <= radio de (x, y), del más cercano al más lejano
+    public List<Node> nodesWithin(int x, int y, int radio) {
+        return spatial.withinRadius(x, y, radio);
+    }
+
+    // Los k nodos más cercanos a (x, y)
+    public List<Node> kNearestNodes(int x, int y, int k) {
+        return spatial.kNearest(x, y, k);
     }
-}
\ No newline at end of file
+}
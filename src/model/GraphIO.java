@@ -2,71 +2,72 @@ package model;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 public class GraphIO {
 
+    private static final int LANDMARKS_MAGIC = 0x414C5431;   // "ALT1"
+
     public static class LoadResult {
         public final String imagePath;
         public final boolean ok;
         public final String message;
+        public final int line;          // línea del error de formato, 0 si no aplica
         public LoadResult(String imagePath, boolean ok, String message) {
-            this.imagePath = imagePath; this.ok = ok; this.message = message;
+            this(imagePath, ok, message, 0);
+        }
+        public LoadResult(String imagePath, boolean ok, String message, int line) {
+            this.imagePath = imagePath; this.ok = ok; this.message = message; this.line = line;
         }
     }
 
+    // Detecta el formato por la marca inicial: binario (.gbin) o texto (.cfg).
+    // Los archivos de texto grandes se analizan en paralelo.
     public static LoadResult load(File file, Graph g) {
-        g.clear();
-        String imagePath = null;
-        boolean inNodes = false, inEdges = false, inBlocked = false;
-
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                new FileInputStream(file), StandardCharsets.UTF_8))) {
-
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.strip();
-                if (line.isEmpty() || line.startsWith("#")) continue;
-
-                if (line.startsWith("IMAGE")) {
-                    imagePath = line.substring("IMAGE".length()).trim();
-                    inNodes = inEdges = inBlocked = false;
-                } else if (line.equals("NODES")) {
-                    inNodes = true; inEdges = inBlocked = false;
-                } else if (line.equals("EDGES")) {
-                    inNodes = false; inEdges = true; inBlocked = false;
-                } else if (line.equals("BLOCKED")) {
-                    inNodes = inEdges = false; inBlocked = true;
-                } else if (line.startsWith("START")) {
-                    String[] p = line.split("\\s+");
-                    if (p.length >= 2) g.setStart(p[1]);
-                } else if (line.startsWith("END")) {
-                    String[] p = line.split("\\s+");
-                    if (p.length >= 2) g.setEnd(p[1]);
-                } else if (inNodes) {
-                    String[] p = line.split("\\s+");
-                    if (p.length >= 3) {
-                        String id = p[0];
-                        int x = Integer.parseInt(p[1]);
-                        int y = Integer.parseInt(p[2]);
-                        g.addNode(new Node(id, x, y));
-                    }
-                } else if (inEdges) {
-                    String[] p = line.split("\\s+");
-                    if (p.length >= 2) g.connect(p[0], p[1]);
-                } else if (inBlocked) {
-                    String id = line.trim();
-                    g.setBlocked(id, true);
-                }
-            }
+        return load(file, g, file.length() >= TextGraphFormat.PARALLEL_THRESHOLD);
+    }
+
+    public static LoadResult load(File file, Graph g, boolean parallel) {
+        LoadResult lr = BinaryGraphFormat.isBinary(file) ? loadBinary(file, g) : loadText(file, g, parallel);
+        if (!lr.ok) return lr;
+        // las ediciones guardadas después de la última compactación
+        try {
+            String imagePath = GraphJournal.replay(journalFile(file), g, lr.imagePath);
             return new LoadResult(imagePath, true, "OK");
-        } catch (Exception ex) {
-            return new LoadResult(imagePath, false, "Error al cargar: " + ex.getMessage());
+        } catch (TextGraphFormat.SyntaxError ex) {
+            return new LoadResult(lr.imagePath, false,
+                    "Error en el diario (línea " + ex.line + "): " + ex.getMessage(), ex.line);
+        } catch (IOException ex) {
+            return new LoadResult(lr.imagePath, false, "Error al leer el diario: " + ex.getMessage());
+        }
+    }
+
+    private static LoadResult loadText(File file, Graph g, boolean parallel) {
+        try {
+            String imagePath = TextGraphFormat.read(file, g, parallel);
+            return new LoadResult(imagePath, true, "OK");
+        } catch (TextGraphFormat.SyntaxError ex) {
+            return new LoadResult(null, false,
+                    "Error al cargar (línea " + ex.line + "): " + ex.getMessage(), ex.line);
+        } catch (IOException ex) {
+            return new LoadResult(null, false, "Error al cargar: " + ex.getMessage());
         }
     }
 
     public static boolean save(File file, Graph g, String imagePath) {
-        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(
-                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+        try {
+            replaceAtomically(file, tmp -> writeText(tmp, g, imagePath));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static void writeText(File file, Graph g, String imagePath) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(file);
+             PrintWriter pw = new PrintWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
 
             if (imagePath != null && !imagePath.isBlank()) {
                 pw.println("IMAGE " + imagePath);
@@ -76,11 +77,16 @@ public class GraphIO {
                 pw.printf("%s %d %d%n", n.id, n.x, n.y);
             }
             pw.println("EDGES");
-            for (var e : g.getAdjacency().entrySet()) {
-                String a = e.getKey();
-                for (String b : e.getValue()) {
+            for (Node n : g.getNodes()) {
+                String a = n.id;
+                for (String b : g.neighbors(a)) {
                     if (a.compareTo(b) < 0) {
-                        pw.printf("%s %s%n", a, b);
+                        // el peso solo se escribe si no es la distancia euclídea por defecto
+                        if (g.hasCustomWeight(a, b)) {
+                            pw.printf("%s %s %s%n", a, b, g.getWeight(a, b));
+                        } else {
+                            pw.printf("%s %s%n", a, b);
+                        }
                     }
                 }
             }
@@ -88,16 +94,171 @@ public class GraphIO {
             // Guardar nodos bloqueados
             pw.println("BLOCKED");
             for (Node n : g.getNodes()) {
-                if (n.blocked) {
+                if (g.isBlocked(n.id)) {
                     pw.println(n.id);
                 }
             }
             
             if (g.getStart() != null) pw.println("START " + g.getStart());
             if (g.getEnd() != null) pw.println("END " + g.getEnd());
+            pw.flush();
+            if (pw.checkError()) throw new IOException("Error al escribir " + file.getPath());
+            fos.getFD().sync();
+        }
+    }
+
+    // Reescribe el mapa completo (texto, binario y mapeado) y vacía el diario. Cada archivo
+    // se escribe en un temporal y se renombra encima del anterior, así un corte a mitad
+    // nunca deja un mapa.cfg dañado: queda el viejo más el diario, o el nuevo.
+    public static boolean compact(File file, Graph g, String imagePath) {
+        if (!save(file, g, imagePath) || !saveBinary(binaryFile(file), g, imagePath)
+                || !saveMapped(mappedFile(file), g)) return false;
+        try {
+            Files.deleteIfExists(journalFile(file).toPath());
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TargetWriter {
+        void write(File target) throws IOException;
+    }
+
+    // Escribe en un temporal junto al destino y lo renombra encima
+    private static void replaceAtomically(File target, TargetWriter writer) throws IOException {
+        File tmp = new File(target.getAbsoluteFile().getParentFile(), target.getName() + ".tmp");
+        writer.write(tmp);
+        try {
+            Files.move(tmp.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static LoadResult loadBinary(File file, Graph g) {
+        try {
+            String imagePath = BinaryGraphFormat.read(file, g);
+            return new LoadResult(imagePath, true, "OK");
+        } catch (IOException ex) {
+            return new LoadResult(null, false, "Error al cargar: " + ex.getMessage());
+        }
+    }
+
+    public static boolean saveBinary(File file, Graph g, String imagePath) {
+        try {
+            replaceAtomically(file, tmp -> BinaryGraphFormat.write(tmp, g, imagePath));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    // Convierte entre texto y binario: el formato de entrada se detecta solo y el de
+    // salida lo decide la extensión (.gbin = binario, cualquier otra = texto)
+    public static LoadResult convert(File in, File out) {
+        Graph g = new Graph();
+        LoadResult lr = load(in, g);
+        if (!lr.ok) return lr;
+        boolean ok = out.getName().endsWith(".gbin")
+                ? saveBinary(out, g, lr.imagePath)
+                : save(out, g, lr.imagePath);
+        return new LoadResult(lr.imagePath, ok, ok ? "OK" : "Error al escribir " + out.getPath());
+    }
+
+    // Versión binaria junto al mapa: data/mapa.cfg -> data/mapa.gbin
+    public static File binaryFile(File mapFile) {
+        return sibling(mapFile, ".gbin");
+    }
+
+    // Diario de ediciones junto al mapa: data/mapa.cfg -> data/mapa.jnl
+    public static File journalFile(File mapFile) {
+        return sibling(mapFile, ".jnl");
+    }
+
+    // Archivo de landmarks junto al mapa: data/mapa.cfg -> data/mapa.alt
+    public static File landmarksFile(File mapFile) {
+        return sibling(mapFile, ".alt");
+    }
+
+    // Grafo en formato mapeado en memoria junto al mapa: data/mapa.cfg -> data/mapa.gmap
+    public static File mappedFile(File mapFile) {
+        return sibling(mapFile, ".gmap");
+    }
+
+    private static File sibling(File mapFile, String extension) {
+        String name = mapFile.getName();
+        int dot = name.lastIndexOf('.');
+        String base = (dot > 0) ? name.substring(0, dot) : name;
+        return new File(mapFile.getAbsoluteFile().getParentFile(), base + extension);
+    }
+
+    // Grafo para consultas de solo lectura (modo lote). Si el .gmap junto al mapa está al día
+    // (más nuevo que el mapa y sin diario pendiente) se abre mapeado, sin parsear ni copiar
+    // al heap; si no, se carga el mapa y se usa su instantánea. map también puede ser el .gmap.
+    public static RoutingGraph openForRouting(File map) throws IOException {
+        boolean direct = map.getName().endsWith(".gmap");
+        File gmap = direct ? map : mappedFile(map);
+        if (direct || (gmap.isFile() && gmap.lastModified() >= map.lastModified()
+                && !journalFile(map).exists())) {
+            return MappedGraph.open(gmap, false);
+        }
+        Graph g = new Graph();
+        LoadResult lr = load(map, g);
+        if (!lr.ok) throw new IOException(lr.message);
+        return g.snapshot();
+    }
+
+    // Exporta la instantánea actual para abrirla después con MappedGraph.open
+    public static boolean saveMapped(File file, Graph g) {
+        try {
+            CompactGraph cg = g.snapshot();
+            replaceAtomically(file, tmp -> MappedGraph.write(cg, tmp));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    public static boolean saveLandmarks(File file, Landmarks lm) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file)))) {
+            double[][] dist = lm.distances();
+            out.writeInt(LANDMARKS_MAGIC);
+            out.writeLong(lm.fingerprint());
+            out.writeInt(lm.count());
+            out.writeInt(dist.length == 0 ? 0 : dist[0].length);
+            for (String id : lm.getLandmarkIds()) out.writeUTF(id);
+            for (double[] row : dist) {
+                for (double d : row) out.writeDouble(d);
+            }
             return true;
         } catch (Exception ex) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Devuelve null si el archivo no existe o no es válido; el llamador debe
+    // comprobar matches() contra el grafo cargado antes de usarlo
+    public static Landmarks loadLandmarks(File file) {
+        if (!file.isFile()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file)))) {
+            if (in.readInt() != LANDMARKS_MAGIC) return null;
+            long fingerprint = in.readLong();
+            int k = in.readInt();
+            int n = in.readInt();
+            String[] ids = new String[k];
+            for (int i = 0; i < k; i++) ids[i] = in.readUTF();
+            double[][] dist = new double[k][n];
+            for (double[] row : dist) {
+                for (int v = 0; v < n; v++) row[v] = in.readDouble();
+            }
+            return new Landmarks(fingerprint, ids, dist);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+}
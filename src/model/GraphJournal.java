@@ -0,0 +1,142 @@
+package model;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Diario de ediciones (mapa.jnl) que se añade al final del archivo en lugar de reescribir
+// el mapa completo en cada guardado. Las ediciones se acumulan en memoria y commit() las
+// escribe de una vez; al cargar, GraphIO aplica el diario sobre la última instantánea.
+//
+// Cada entrada fija un estado (posición, bloqueo, inicio...) en lugar de describir un
+// cambio relativo, así volver a aplicar un diario ya incluido en la instantánea (corte
+// entre la compactación y el borrado del diario) no altera el resultado.
+//
+//   JOURNAL 1
+//   ADD id x y | MOVE id x y | CONNECT a b [peso] | BLOCK id | UNBLOCK id
+//   START id | END id | CLEAR | IMAGE ruta
+public final class GraphJournal {
+
+    static final String HEADER = "JOURNAL 1";
+
+    private final File file;
+    private final List<String> pending = new ArrayList<>();
+    private int committed = 0;      // entradas ya escritas en el archivo
+
+    public GraphJournal(File file) throws IOException {
+        this.file = file;
+        if (file.isFile()) committed = repair(file);
+    }
+
+    public void addNode(Node n) { pending.add("ADD " + n.id + " " + n.x + " " + n.y); }
+
+    public void moveNode(String id, int x, int y) { pending.add("MOVE " + id + " " + x + " " + y); }
+
+    public void connect(String a, String b) { pending.add("CONNECT " + a + " " + b); }
+
+    public void connect(String a, String b, double weight) { pending.add("CONNECT " + a + " " + b + " " + weight); }
+
+    public void setBlocked(String id, boolean isBlocked) { pending.add((isBlocked ? "BLOCK " : "UNBLOCK ") + id); }
+
+    public void setBlocked(Collection<String> ids, boolean isBlocked) {
+        for (String id : ids) setBlocked(id, isBlocked);
+    }
+
+    public void setStart(String id) { pending.add("START " + id); }
+
+    public void setEnd(String id) { pending.add("END " + id); }
+
+    public void clear() { pending.add("CLEAR"); }
+
+    public void setImage(String path) { pending.add("IMAGE " + path); }
+
+    public int pendingCount() { return pending.size(); }
+
+    public int committedCount() { return committed; }
+
+    // Añade las ediciones pendientes al archivo y lo sincroniza con el disco
+    public void commit() throws IOException {
+        if (pending.isEmpty()) return;
+        boolean fresh = !file.isFile() || file.length() == 0;
+        StringBuilder sb = new StringBuilder();
+        if (fresh) sb.append(HEADER).append('\n');
+        for (String e : pending) sb.append(e).append('\n');
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        committed += pending.size();
+        pending.clear();
+    }
+
+    // Aplica el diario sobre g; devuelve la ruta de imagen resultante. Una última línea
+    // sin '\n' es una escritura interrumpida y se ignora.
+    static String replay(File file, Graph g, String imagePath) throws IOException {
+        if (!file.isFile()) return imagePath;
+        String text = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        String[] lines = text.substring(0, text.lastIndexOf('\n') + 1).split("\n");
+        if (lines.length == 0 || lines[0].isEmpty()) return imagePath;
+        if (!lines[0].strip().equals(HEADER))
+            throw new TextGraphFormat.SyntaxError(1, "cabecera de diario desconocida: " + lines[0].strip());
+
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty()) continue;
+            int sp = line.indexOf(' ');
+            String op = sp < 0 ? line : line.substring(0, sp);
+            if (op.equals("IMAGE")) {
+                imagePath = line.substring(sp < 0 ? line.length() : sp + 1).strip();
+                continue;
+            }
+            String[] p = line.split(" +");
+            try {
+                switch (op) {
+                    case "ADD" -> g.addNode(new Node(arg(p, 1, i), Integer.parseInt(arg(p, 2, i)), Integer.parseInt(arg(p, 3, i))));
+                    case "MOVE" -> g.moveNode(arg(p, 1, i), Integer.parseInt(arg(p, 2, i)), Integer.parseInt(arg(p, 3, i)));
+                    case "CONNECT" -> {
+                        if (p.length > 3) g.connect(arg(p, 1, i), arg(p, 2, i), Double.parseDouble(p[3]));
+                        else g.connect(arg(p, 1, i), arg(p, 2, i));
+                    }
+                    case "BLOCK" -> g.setBlocked(arg(p, 1, i), true);
+                    case "UNBLOCK" -> g.setBlocked(arg(p, 1, i), false);
+                    case "START" -> g.setStart(arg(p, 1, i));
+                    case "END" -> g.setEnd(arg(p, 1, i));
+                    case "CLEAR" -> g.clear();
+                    default -> throw new TextGraphFormat.SyntaxError(i + 1, "operación desconocida: " + op);
+                }
+            } catch (NumberFormatException ex) {
+                throw new TextGraphFormat.SyntaxError(i + 1, "número inválido en '" + line + "'");
+            } catch (IllegalArgumentException ex) {
+                // peso inválido
+                throw new TextGraphFormat.SyntaxError(i + 1, ex.getMessage());
+            }
+        }
+        return imagePath;
+    }
+
+    private static String arg(String[] p, int k, int line) throws TextGraphFormat.SyntaxError {
+        if (k >= p.length) throw new TextGraphFormat.SyntaxError(line + 1, "faltan argumentos para " + p[0]);
+        return p[k];
+    }
+
+    // Recorta una escritura interrumpida (última línea sin '\n') para que las entradas
+    // nuevas no queden pegadas a ella; devuelve cuántas entradas completas hay
+    private static int repair(File file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') end--;
+        if (end < bytes.length) {
+            try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                ch.truncate(end);
+            }
+        }
+        int lines = 0;
+        for (int i = 0; i < end; i++) {
+            if (bytes[i] == '\n') lines++;
+        }
+        return Math.max(0, lines - 1);     // sin la cabecera
+    }
+}
@@ -0,0 +1,41 @@
+package model;
+
+// Resumen del tamaño del grafo en un instante. Graph lo arma en O(1) a partir de
+// contadores que mantiene al agregar nodos, conectar, bloquear y limpiar.
+public final class GraphStats {
+    public final int nodes;
+    public final int edges;             // aristas no dirigidas
+    public final int blocked;
+    public final int maxDegree;
+    public final int isolated;          // nodos sin ninguna arista
+    public final long nodeBytes;        // memoria estimada de nodos, ids e índices
+    public final long edgeBytes;        // memoria estimada de listas de adyacencia y pesos
+
+    GraphStats(int nodes, int edges, int blocked, int maxDegree, int isolated,
+               long nodeBytes, long edgeBytes) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.blocked = blocked;
+        this.maxDegree = maxDegree;
+        this.isolated = isolated;
+        this.nodeBytes = nodeBytes;
+        this.edgeBytes = edgeBytes;
+    }
+
+    public double averageDegree() {
+        return nodes == 0 ? 0 : 2.0 * edges / nodes;
+    }
+
+    public long totalBytes() { return nodeBytes + edgeBytes; }
+
+    public double bytesPerNode() { return nodes == 0 ? 0 : (double) nodeBytes / nodes; }
+
+    public double bytesPerEdge() { return edges == 0 ? 0 : (double) edgeBytes / edges; }
+
+    @Override
+    public String toString() {
+        return String.format("%d nodos | %d aristas | %d bloqueados | grado medio %.2f | grado máx %d | %d aislados"
+                        + " | ~%.0f B/nodo, ~%.0f B/arista",
+                nodes, edges, blocked, averageDegree(), maxDegree, isolated, bytesPerNode(), bytesPerEdge());
+    }
+}
@@ -0,0 +1,129 @@
+package model;
+
+import java.util.Arrays;
+
+// Montículo binario mínimo indexado por nodo (0..n-1) con prioridades double.
+// Permite disminuir la prioridad de un nodo ya encolado sin objetos intermedios,
+// a diferencia de PriorityQueue<Entry> que obliga a encolar duplicados.
+// Opcionalmente admite una segunda clave de desempate (orden lexicográfico), como la
+// que usa LPA*.
+final class IndexedMinHeap {
+
+    private final int[] heap;      // posición -> nodo
+    private final int[] pos;       // nodo -> posición en heap, -1 si no está
+    private final double[] key;    // prioridad por nodo
+    private final double[] key2;   // desempate, null si el montículo usa una sola clave
+    private int size = 0;
+
+    IndexedMinHeap(int capacity) {
+        this(capacity, false);
+    }
+
+    IndexedMinHeap(int capacity, boolean twoKeys) {
+        heap = new int[capacity];
+        pos = new int[capacity];
+        key = new double[capacity];
+        key2 = twoKeys ? new double[capacity] : null;
+        Arrays.fill(pos, -1);
+    }
+
+    boolean isEmpty() { return size == 0; }
+
+    boolean contains(int v) { return pos[v] != -1; }
+
+    double keyOf(int v) { return key[v]; }
+
+    // Prioridad mínima actual (infinito si está vacío)
+    double minKey() { return size == 0 ? Double.POSITIVE_INFINITY : key[heap[0]]; }
+
+    double minKey2() { return size == 0 ? Double.POSITIVE_INFINITY : key2[heap[0]]; }
+
+    int peekMin() { return heap[0]; }
+
+    // Inserta v o cambia su prioridad (en cualquier sentido); requiere dos claves
+    void insertOrUpdate(int v, double k, double k2) {
+        key[v] = k;
+        key2[v] = k2;
+        if (pos[v] == -1) {
+            heap[size] = v;
+            pos[v] = size;
+            siftUp(size++);
+        } else {
+            siftUp(pos[v]);
+            siftDown(pos[v]);
+        }
+    }
+
+    void remove(int v) {
+        int i = pos[v];
+        if (i == -1) return;
+        pos[v] = -1;
+        if (i == --size) return;
+        int moved = heap[size];
+        heap[i] = moved;
+        pos[moved] = i;
+        siftUp(i);
+        siftDown(pos[moved]);
+    }
+
+    // Inserta v o baja su prioridad si la nueva es menor
+    void insertOrDecrease(int v, double k) {
+        if (pos[v] == -1) {
+            key[v] = k;
+            heap[size] = v;
+            pos[v] = size;
+            siftUp(size++);
+        } else if (k < key[v]) {
+            key[v] = k;
+            siftUp(pos[v]);
+        }
+    }
+
+    int pollMin() {
+        int min = heap[0];
+        pos[min] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private boolean less(int a, int b) {
+        return key[a] < key[b] || (key2 != null && key[a] == key[b] && key2[a] < key2[b]);
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!less(v, heap[p])) break;
+            heap[i] = heap[p];
+            pos[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1;
+            if (c + 1 < size && less(heap[c + 1], heap[c])) c++;
+            if (!less(heap[c], v)) break;
+            heap[i] = heap[c];
+            pos[heap[i]] = i;
+            i = c;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+}
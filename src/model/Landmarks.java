@@ -0,0 +1,107 @@
+package model;
+
+import java.util.*;
+
+// Tablas de distancias desde K nodos de referencia (landmarks) para la búsqueda ALT
+// (A*, Landmarks, desigualdad Triangular). Para todo v y destino t:
+//     dist(v, t) >= |d(L, t) - d(L, v)|
+// y el máximo sobre los landmarks es una heurística consistente.
+// Las distancias se calculan sin tener en cuenta los bloqueos: bloquear un nodo solo
+// alarga caminos, así que las cotas siguen siendo válidas y las tablas no se
+// invalidan al bloquear o desbloquear. Sí dependen de aristas, pesos y posiciones.
+public final class Landmarks {
+
+    public static final int DEFAULT_COUNT = 8;
+
+    private final long fingerprint;
+    private final String[] landmarkIds;
+    private final double[][] dist;       // dist[k][v], infinito si v no alcanza al landmark k
+
+    Landmarks(long fingerprint, String[] landmarkIds, double[][] dist) {
+        this.fingerprint = fingerprint;
+        this.landmarkIds = landmarkIds;
+        this.dist = dist;
+    }
+
+    // Selección por punto más lejano: cada nuevo landmark es el nodo cuya distancia
+    // al landmark más cercano ya elegido es máxima
+    public static Landmarks compute(RoutingGraph cg, int count) {
+        int n = cg.size();
+        List<String> ids = new ArrayList<>();
+        List<double[]> dist = new ArrayList<>();
+        if (n == 0 || count <= 0) return new Landmarks(cg.fingerprint(), new String[0], new double[0][]);
+
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        // el primero es el nodo más lejano a uno arbitrario (con aristas), para empezar en la periferia
+        int origin = 0;
+        while (origin < n && cg.begin(origin) == cg.end(origin)) origin++;
+        int next = origin < n ? farthest(distancesFrom(cg, origin)) : -1;
+        while (next >= 0 && ids.size() < count) {
+            double[] d = distancesFrom(cg, next);
+            ids.add(cg.id(next));
+            dist.add(d);
+            for (int v = 0; v < n; v++) nearest[v] = Math.min(nearest[v], d[v]);
+            next = farthest(nearest);
+        }
+        return new Landmarks(cg.fingerprint(), ids.toArray(new String[0]), dist.toArray(new double[0][]));
+    }
+
+    // Nodo alcanzable con mayor distancia (> 0), o -1 si no queda ninguno
+    private static int farthest(double[] d) {
+        int best = -1;
+        for (int v = 0; v < d.length; v++) {
+            if (d[v] != Double.POSITIVE_INFINITY && d[v] > 0 && (best < 0 || d[v] > d[best])) best = v;
+        }
+        return best;
+    }
+
+    // Dijkstra completo desde source, ignorando bloqueos. Abandona con CancellationException
+    // si interrumpen el hilo, como las búsquedas.
+    private static double[] distancesFrom(RoutingGraph cg, int source) {
+        double[] d = new double[cg.size()];
+        Arrays.fill(d, Double.POSITIVE_INFINITY);
+        IndexedMinHeap heap = new IndexedMinHeap(cg.size());
+        d[source] = 0;
+        heap.insertOrDecrease(source, 0);
+        int steps = 0;
+        while (!heap.isEmpty()) {
+            Algorithms.checkCancelled(++steps);
+            int u = heap.pollMin();
+            for (int i = cg.begin(u), to = cg.end(u); i < to; i++) {
+                int v = cg.target(i);
+                double nd = d[u] + cg.weight(i);
+                if (nd < d[v]) {
+                    d[v] = nd;
+                    heap.insertOrDecrease(v, nd);
+                }
+            }
+        }
+        return d;
+    }
+
+    // true si las tablas se calcularon sobre estas mismas aristas, pesos y nodos
+    public boolean matches(RoutingGraph cg) {
+        return fingerprint == cg.fingerprint() && (dist.length == 0 || dist[0].length == cg.size());
+    }
+
+    public int count() { return landmarkIds.length; }
+
+    public List<String> getLandmarkIds() { return List.of(landmarkIds); }
+
+    long fingerprint() { return fingerprint; }
+
+    double[][] distances() { return dist; }
+
+    // Cota inferior de dist(v, t); 0 si ningún landmark aporta información
+    public double lowerBound(int v, int t) {
+        double best = 0;
+        for (double[] d : dist) {
+            double dv = d[v], dt = d[t];
+            if (dv == Double.POSITIVE_INFINITY || dt == Double.POSITIVE_INFINITY) continue;
+            double b = Math.abs(dt - dv);
+            if (b > best) best = b;
+        }
+        return best;
+    }
+}
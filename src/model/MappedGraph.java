@@ -0,0 +1,330 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Grafo de solo lectura respaldado por un archivo mapeado en memoria (FileChannel.map).
+// Coordenadas, adyacencia CSR, ids y bloqueos viven fuera del heap: abrir un mapa
+// grande es casi instantáneo (las páginas se cargan al tocarlas) y la caché de páginas
+// del sistema operativo se comparte entre procesos que abren el mismo archivo.
+//
+// Formato (little-endian), cada sección alineada a 8 bytes:
+//   cabecera: MAGIC, FORMAT_VERSION, n, arcos, heuristicScale, fingerprint, bytes de ids
+//   xs[n], ys[n], offsets[n+1], targets[arcos], sortedTargets[arcos], weights[arcos],
+//   component[n], idOffsets[n+1], byId[n] (índices ordenados por id), ids UTF-8,
+//   blocked[(n+63)/64]
+// Las componentes se calculan sin tener en cuenta bloqueos, así siguen siendo una
+// cota válida aunque después se bloqueen nodos.
+public final class MappedGraph implements RoutingGraph {
+
+    static final int MAGIC = 0x474D4150;     // "GMAP"
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+
+    private final int n, arcs;
+    private final double heuristicScale;
+    private final long fingerprint;
+    private final boolean writable;
+    private final IntBuffer xs, ys, offsets, targets, sortedTargets, component, idOffsets, byId;
+    private final DoubleBuffer weights;
+    private final ByteBuffer idBytes;
+    private final LongBuffer blocked;
+
+    private ContractionHierarchy hierarchy = null;
+    private long blockedVersion = 0, hierarchyVersion = -1;
+
+    private MappedGraph(FileChannel ch, boolean writable) throws IOException {
+        this.writable = writable;
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (head.hasRemaining() && ch.read(head, head.position()) >= 0) { }
+        head.flip();
+        if (head.remaining() < HEADER_BYTES || head.getInt() != MAGIC) {
+            throw new IOException("No es un archivo de grafo mapeado");
+        }
+        int version = head.getInt();
+        if (version != FORMAT_VERSION) throw new IOException("Versión de formato no soportada: " + version);
+        n = head.getInt();
+        arcs = head.getInt();
+        heuristicScale = head.getDouble();
+        fingerprint = head.getLong();
+        long idLength = head.getLong();
+
+        Layout l = new Layout(n, arcs, idLength);
+        if (ch.size() < l.total) throw new IOException("Archivo truncado");
+        FileChannel.MapMode ro = FileChannel.MapMode.READ_ONLY;
+        xs = map(ch, ro, l.xs, 4L * n).asIntBuffer();
+        ys = map(ch, ro, l.ys, 4L * n).asIntBuffer();
+        offsets = map(ch, ro, l.offsets, 4L * (n + 1)).asIntBuffer();
+        targets = map(ch, ro, l.targets, 4L * arcs).asIntBuffer();
+        sortedTargets = map(ch, ro, l.sortedTargets, 4L * arcs).asIntBuffer();
+        weights = map(ch, ro, l.weights, 8L * arcs).asDoubleBuffer();
+        component = map(ch, ro, l.component, 4L * n).asIntBuffer();
+        idOffsets = map(ch, ro, l.idOffsets, 4L * (n + 1)).asIntBuffer();
+        byId = map(ch, ro, l.byId, 4L * n).asIntBuffer();
+        idBytes = map(ch, ro, l.ids, idLength);
+        blocked = map(ch, writable ? FileChannel.MapMode.READ_WRITE : ro, l.blocked, 8L * l.blockWords)
+                .asLongBuffer();
+    }
+
+    // Abre el archivo; con writable los bloqueos se escriben directo en él
+    public static MappedGraph open(File file, boolean writable) throws IOException {
+        Set<StandardOpenOption> opts = writable
+                ? EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : EnumSet.of(StandardOpenOption.READ);
+        // el mapeo sigue siendo válido después de cerrar el canal
+        try (FileChannel ch = FileChannel.open(file.toPath(), opts)) {
+            return new MappedGraph(ch, writable);
+        }
+    }
+
+    // Vuelca cualquier RoutingGraph (normalmente Graph.snapshot()) al formato mapeado
+    public static void write(RoutingGraph g, File file) throws IOException {
+        int n = g.size();
+        int arcs = n == 0 ? 0 : g.end(n - 1);
+        byte[][] ids = new byte[n][];
+        long idLength = 0;
+        for (int u = 0; u < n; u++) {
+            ids[u] = g.id(u).getBytes(StandardCharsets.UTF_8);
+            idLength += ids[u].length;
+        }
+        if (idLength > Integer.MAX_VALUE) throw new IOException("Ids demasiado grandes para el formato");
+        Layout l = new Layout(n, arcs, idLength);
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<MappedByteBuffer> sections = new ArrayList<>();
+            ByteBuffer head = section(ch, sections, 0, HEADER_BYTES);
+            head.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(n).putInt(arcs)
+                .putDouble(g.heuristicScale()).putLong(g.fingerprint()).putLong(idLength);
+
+            IntBuffer xs = section(ch, sections, l.xs, 4L * n).asIntBuffer();
+            IntBuffer ys = section(ch, sections, l.ys, 4L * n).asIntBuffer();
+            IntBuffer offsets = section(ch, sections, l.offsets, 4L * (n + 1)).asIntBuffer();
+            for (int u = 0; u < n; u++) {
+                xs.put(g.x(u));
+                ys.put(g.y(u));
+                offsets.put(g.begin(u));
+            }
+            offsets.put(arcs);
+
+            IntBuffer targets = section(ch, sections, l.targets, 4L * arcs).asIntBuffer();
+            IntBuffer sorted = section(ch, sections, l.sortedTargets, 4L * arcs).asIntBuffer();
+            DoubleBuffer weights = section(ch, sections, l.weights, 8L * arcs).asDoubleBuffer();
+            for (int i = 0; i < arcs; i++) {
+                targets.put(g.target(i));
+                sorted.put(g.sortedTarget(i));
+                weights.put(g.weight(i));
+            }
+
+            IntBuffer component = section(ch, sections, l.component, 4L * n).asIntBuffer();
+            component.put(structuralComponents(g));
+
+            IntBuffer idOffsets = section(ch, sections, l.idOffsets, 4L * (n + 1)).asIntBuffer();
+            ByteBuffer idData = section(ch, sections, l.ids, idLength);
+            for (int u = 0; u < n; u++) {
+                idOffsets.put(idData.position());
+                idData.put(ids[u]);
+            }
+            idOffsets.put(idData.position());
+
+            Integer[] order = new Integer[n];
+            for (int u = 0; u < n; u++) order[u] = u;
+            Arrays.sort(order, Comparator.comparing(g::id));
+            IntBuffer byId = section(ch, sections, l.byId, 4L * n).asIntBuffer();
+            for (Integer u : order) byId.put(u);
+
+            LongBuffer blocked = section(ch, sections, l.blocked, 8L * l.blockWords).asLongBuffer();
+            for (int u = 0; u < n; u++) {
+                if (g.isBlocked(u)) blocked.put(u >>> 6, blocked.get(u >>> 6) | (1L << (u & 63)));
+            }
+
+            // a disco antes de cerrar (y antes del renombrado en GraphIO.saveMapped): un .gmap
+            // se da por bueno según su fecha, así que no puede quedar a medio escribir
+            for (MappedByteBuffer m : sections) m.force();
+            ch.force(true);
+        }
+    }
+
+    private static ByteBuffer section(FileChannel ch, List<MappedByteBuffer> sections, long pos, long size)
+            throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("Sección de " + size + " bytes: demasiado grande para mapear");
+        MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_WRITE, pos, size);
+        sections.add(m);
+        return m.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Etiquetas de componente sobre todas las aristas, ignorando bloqueos
+    private static int[] structuralComponents(RoutingGraph g) {
+        int n = g.size();
+        int[] label = new int[n];
+        Arrays.fill(label, -1);
+        int[] queue = new int[n];
+        for (int s = 0; s < n; s++) {
+            if (label[s] >= 0) continue;
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            label[s] = s;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int i = g.begin(u), to = g.end(u); i < to; i++) {
+                    int v = g.target(i);
+                    if (label[v] < 0) {
+                        label[v] = s;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+        return label;
+    }
+
+    private static ByteBuffer map(FileChannel ch, FileChannel.MapMode mode, long pos, long size)
+            throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("Sección de " + size + " bytes: demasiado grande para mapear");
+        return ch.map(mode, pos, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Posición de cada sección en el archivo
+    private static final class Layout {
+        final long xs, ys, offsets, targets, sortedTargets, weights, component, idOffsets, byId, ids, blocked;
+        final long blockWords, total;
+
+        Layout(int n, int arcs, long idLength) {
+            blockWords = (n + 63) / 64;
+            long p = HEADER_BYTES;
+            xs = p;             p = align(p + 4L * n);
+            ys = p;             p = align(p + 4L * n);
+            offsets = p;        p = align(p + 4L * (n + 1));
+            targets = p;        p = align(p + 4L * arcs);
+            sortedTargets = p;  p = align(p + 4L * arcs);
+            weights = p;        p = align(p + 8L * arcs);
+            component = p;      p = align(p + 4L * n);
+            idOffsets = p;      p = align(p + 4L * (n + 1));
+            byId = p;           p = align(p + 4L * n);
+            ids = p;            p = align(p + idLength);
+            blocked = p;        p = p + 8L * blockWords;
+            total = p;
+        }
+
+        private static long align(long p) { return (p + 7) & ~7L; }
+    }
+
+    // --- Bloqueos: se leen y escriben directamente en el archivo ---
+
+    // Visible de inmediato para las búsquedas en curso y para otros procesos que
+    // tengan el archivo abierto; la jerarquía de contracción se rehace en la siguiente consulta
+    public synchronized void setBlocked(int u, boolean isBlocked) {
+        if (!writable) throw new IllegalStateException("Grafo abierto en solo lectura");
+        long word = blocked.get(u >>> 6), bit = 1L << (u & 63);
+        long updated = isBlocked ? (word | bit) : (word & ~bit);
+        if (updated != word) {
+            blocked.put(u >>> 6, updated);
+            blockedVersion++;
+        }
+    }
+
+    @Override
+    public boolean isBlocked(int u) {
+        return (blocked.get(u >>> 6) & (1L << (u & 63))) != 0;
+    }
+
+    @Override
+    public boolean sameComponent(int u, int v) {
+        return u >= 0 && v >= 0 && !isBlocked(u) && !isBlocked(v) && component.get(u) == component.get(v);
+    }
+
+    @Override public int size() { return n; }
+    @Override public int edgeCount() { return arcs / 2; }
+
+    // Búsqueda binaria sobre los índices ordenados por id
+    @Override
+    public int indexOf(String id) {
+        if (id == null) return -1;
+        int lo = 0, hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int u = byId.get(mid);
+            int c = compareId(u, id);
+            if (c == 0) return u;
+            if (c < 0) lo = mid + 1; else hi = mid - 1;
+        }
+        return -1;
+    }
+
+    // Igual que id(u).compareTo(id) (orden de write), pero decodificando el UTF-8 del
+    // archivo sobre la marcha en lugar de crear un String por comparación
+    private int compareId(int u, String id) {
+        int p = idOffsets.get(u), end = idOffsets.get(u + 1);
+        int k = 0, len = id.length();
+        char low = 0;       // segunda mitad de un carácter fuera del plano básico
+        while (true) {
+            char c;
+            if (low != 0) {
+                c = low;
+                low = 0;
+            } else if (p < end) {
+                int b = idBytes.get(p++) & 0xFF, cp;
+                if (b < 0x80) {
+                    cp = b;
+                } else if (b < 0xE0) {
+                    cp = (b & 0x1F) << 6 | (idBytes.get(p++) & 0x3F);
+                } else if (b < 0xF0) {
+                    cp = (b & 0x0F) << 12 | (idBytes.get(p++) & 0x3F) << 6 | (idBytes.get(p++) & 0x3F);
+                } else {
+                    cp = (b & 0x07) << 18 | (idBytes.get(p++) & 0x3F) << 12
+                            | (idBytes.get(p++) & 0x3F) << 6 | (idBytes.get(p++) & 0x3F);
+                }
+                if (cp >= 0x10000) {
+                    c = Character.highSurrogate(cp);
+                    low = Character.lowSurrogate(cp);
+                } else {
+                    c = (char) cp;
+                }
+            } else {
+                return k < len ? -1 : 0;
+            }
+            if (k == len) return 1;
+            char d = id.charAt(k++);
+            if (c != d) return c - d;
+        }
+    }
+
+    // Crea el String en cada llamada: las búsquedas trabajan con índices y solo piden ids
+    // al armar el camino (o la lista de visitados si no se pasa un ExplorationListener)
+    @Override
+    public String id(int u) {
+        int from = idOffsets.get(u), to = idOffsets.get(u + 1);
+        byte[] b = new byte[to - from];
+        idBytes.get(from, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    @Override public int x(int u) { return xs.get(u); }
+    @Override public int y(int u) { return ys.get(u); }
+    @Override public double heuristicScale() { return heuristicScale; }
+    @Override public int begin(int u) { return offsets.get(u); }
+    @Override public int end(int u) { return offsets.get(u + 1); }
+    @Override public int target(int i) { return targets.get(i); }
+    @Override public double weight(int i) { return weights.get(i); }
+    @Override public int sortedTarget(int i) { return sortedTargets.get(i); }
+    @Override public long fingerprint() { return fingerprint; }
+
+    @Override
+    public synchronized ContractionHierarchy hierarchy() {
+        if (hierarchy == null || hierarchyVersion != blockedVersion) {
+            hierarchy = new ContractionHierarchy(this);
+            hierarchyVersion = blockedVersion;
+        }
+        return hierarchy;
+    }
+
+    @Override
+    public synchronized boolean hasHierarchy() {
+        return hierarchy != null && hierarchyVersion == blockedVersion;
+    }
+}
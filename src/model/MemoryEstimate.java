@@ -0,0 +1,32 @@
+package model;
+
+// Estimación del tamaño en memoria de Graph, para dimensionar el heap con mapas grandes.
+// Supone una JVM de 64 bits con referencias comprimidas (cabecera de 12 bytes, objetos
+// alineados a 8) e ids Latin-1; es una aproximación, no una medición.
+final class MemoryEstimate {
+
+    // Entrada del HashMap de pesos + Long de la clave + Double del valor + hueco de tabla
+    static final int CUSTOM_WEIGHT = 32 + 16 + 16 + 8;
+
+    private MemoryEstimate() { }
+
+    // Costo fijo de un nodo, sin contar sus listas de vecinos
+    static long node(String id) {
+        long string = 24 + align(16 + id.length());
+        long node = 32;                 // cabecera + id + x + y + index
+        long dictionary = 32 + 8;       // entrada id -> nodo del HashMap + hueco de tabla
+        long lists = 4 + 4;             // byIndex y la celda de SpatialGrid
+        long perIndex = 4 + 4 + 8;      // adjacency[u], degree[u] y union-find (parent, size)
+        return string + node + dictionary + lists + perIndex;
+    }
+
+    // Bytes extra al reemplazar un int[] de oldLength por uno de newLength
+    static long intArrayGrowth(int oldLength, int newLength) {
+        long before = oldLength == 0 ? 0 : align(16 + 4L * oldLength);   // el vacío es compartido
+        return align(16 + 4L * newLength) - before;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -4,19 +4,15 @@ public class Node {
     
     public final String id;
     public int x, y;
-    public boolean blocked; 
+    int index = -1;   // índice denso asignado por Graph.addNode
 
     public Node(String id, int x, int y) {
         this.id = id;
         this.x = x;
         this.y = y;
-        this.blocked = false;
     }
-    
-    public Node(String id, int x, int y, boolean blocked) {
-        this.id = id;
-        this.x = x;
-        this.y = y;
-        this.blocked = blocked;
+
+    public int getIndex() {
+        return index;
     }
 }
\ No newline at end of file
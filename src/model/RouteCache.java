@@ -0,0 +1,60 @@
+package model;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+// Caché LRU acotada de resultados de búsqueda, con clave
+// (algoritmo, inicio, destino, versión del grafo). Cualquier mutación del grafo
+// cambia la versión, así que un resultado viejo nunca se devuelve; al ver una
+// versión nueva se descartan de una vez todas las entradas anteriores.
+// Los aciertos, fallos y desalojos se acumulan en TimeStats.
+public final class RouteCache {
+
+    private record Key(String algorithm, String start, String end, long version) { }
+
+    // hit: el resultado salió de la caché, sin ejecutar la búsqueda (no es una medición)
+    public record Lookup(SearchResult result, boolean hit) { }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, SearchResult> entries;
+    private long currentVersion = -1;
+
+    public RouteCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SearchResult> eldest) {
+                if (size() > RouteCache.this.capacity) {
+                    TimeStats.recordCacheEvictions(1);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Lookup getOrCompute(String algorithm, String start, String end,
+                                            long version, Supplier<SearchResult> search) {
+        if (version != currentVersion) {
+            TimeStats.recordCacheEvictions(entries.size());
+            entries.clear();
+            currentVersion = version;
+        }
+        Key key = new Key(algorithm, start, end, version);
+        SearchResult cached = entries.get(key);
+        if (cached != null) {
+            TimeStats.recordCacheHit();
+            return new Lookup(cached, true);
+        }
+        TimeStats.recordCacheMiss();
+        SearchResult r = search.get();
+        entries.put(key, r);
+        return new Lookup(r, false);
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,71 @@
+package model;
+
+import java.util.*;
+
+// Vista de solo lectura sobre la que corren los algoritmos: nodos con índice denso
+// 0..size()-1 y vecinos en formato CSR (targets[begin(u) .. end(u))).
+// CompactGraph la implementa con arreglos en el heap y MappedGraph sobre archivos
+// mapeados en memoria, para mapas que no caben cómodamente en el heap.
+public interface RoutingGraph {
+
+    int size();
+
+    int edgeCount();
+
+    // Índice denso del nodo, o -1 si no existe
+    int indexOf(String id);
+
+    String id(int u);
+
+    boolean isBlocked(int u);
+
+    // false garantiza que no hay camino entre u y v; -1 = inexistente
+    boolean sameComponent(int u, int v);
+
+    int x(int u);
+
+    int y(int u);
+
+    // Factor (<= 1) que mantiene admisible la distancia en línea recta como heurística
+    double heuristicScale();
+
+    int begin(int u);
+
+    int end(int u);
+
+    int target(int i);
+
+    double weight(int i);
+
+    // Mismos vecinos que target(), ordenados por id (orden del DFS)
+    int sortedTarget(int i);
+
+    // Jerarquía de contracción, construida en la primera consulta
+    ContractionHierarchy hierarchy();
+
+    boolean hasHierarchy();
+
+    // Huella de ids, aristas y pesos (no de los bloqueos)
+    long fingerprint();
+
+    // Suma de pesos a lo largo de un camino de ids (0 si está vacío)
+    default double pathLength(List<String> path) {
+        double total = 0;
+        for (int k = 0; k + 1 < path.size(); k++) {
+            int u = indexOf(path.get(k)), v = indexOf(path.get(k + 1));
+            for (int i = begin(u), to = end(u); i < to; i++) {
+                if (target(i) == v) {
+                    total += weight(i);
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    default List<String> toIds(int[] order, int count) {
+        List<String> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) out.add(id(order[i]));
+        return out;
+    }
+}
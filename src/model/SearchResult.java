@@ -7,17 +7,25 @@ public class SearchResult {
     private final List<String> visitedOrder; 
     private final List<String> exploredEdges; 
     private final String algorithm;         
+    private final int visitedCount;         // también cuando la exploración se entregó por lotes
 
     public SearchResult(List<String> path, List<String> visitedOrder, List<String> exploredEdges, String algorithm) {
+        this(path, visitedOrder, exploredEdges, algorithm, visitedOrder.size());
+    }
+
+    public SearchResult(List<String> path, List<String> visitedOrder, List<String> exploredEdges, String algorithm,
+                        int visitedCount) {
         this.path = path;
         this.visitedOrder = visitedOrder;
         this.exploredEdges = exploredEdges;
         this.algorithm = algorithm;
+        this.visitedCount = visitedCount;
     }
 
     public List<String> getPath() { return path; }
     public List<String> getVisitedOrder() { return visitedOrder; }
     public List<String> getExploredEdges() { return exploredEdges; }
     public String getAlgorithm() { return algorithm; }
+    public int getVisitedCount() { return visitedCount; }
     public boolean hasPath() { return path != null && !path.isEmpty(); }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package model;
+
+import java.util.*;
+
+// Índice espacial de rejilla uniforme: cada nodo vive en la celda
+// (floor(x / cellSize), floor(y / cellSize)). Una búsqueda por radio solo revisa
+// las celdas que toca el círculo, en vez de recorrer todos los nodos del grafo.
+public final class SpatialGrid {
+
+    private final int cellSize;
+    private final Map<Long, List<Node>> cells = new HashMap<>();
+    // Rango de celdas ocupadas alguna vez; acota la búsqueda de k vecinos
+    private int minCx = Integer.MAX_VALUE, maxCx = Integer.MIN_VALUE;
+    private int minCy = Integer.MAX_VALUE, maxCy = Integer.MIN_VALUE;
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    private int cell(int coord) { return Math.floorDiv(coord, cellSize); }
+
+    private static long key(int cx, int cy) { return ((long) cx << 32) ^ (cy & 0xFFFFFFFFL); }
+
+    public void insert(Node n) {
+        int cx = cell(n.x), cy = cell(n.y);
+        cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>(4)).add(n);
+        minCx = Math.min(minCx, cx);
+        maxCx = Math.max(maxCx, cx);
+        minCy = Math.min(minCy, cy);
+        maxCy = Math.max(maxCy, cy);
+    }
+
+    // Debe llamarse después de cambiar n.x/n.y, con la posición anterior
+    public void move(Node n, int oldX, int oldY) {
+        long oldKey = key(cell(oldX), cell(oldY));
+        if (oldKey == key(cell(n.x), cell(n.y))) return;
+        List<Node> list = cells.get(oldKey);
+        if (list != null) {
+            list.remove(n);
+            if (list.isEmpty()) cells.remove(oldKey);
+        }
+        insert(n);
+    }
+
+    public void clear() {
+        cells.clear();
+        minCx = minCy = Integer.MAX_VALUE;
+        maxCx = maxCy = Integer.MIN_VALUE;
+    }
+
+    // Nodo más cercano dentro del radio, o null
+    public Node nearest(int x, int y, int radius) {
+        Node best = null;
+        long bestD2 = (long) radius * radius;
+        for (int cx = cell(x - radius), cx1 = cell(x + radius); cx <= cx1; cx++) {
+            for (int cy = cell(y - radius), cy1 = cell(y + radius); cy <= cy1; cy++) {
+                List<Node> list = cells.get(key(cx, cy));
+                if (list == null) continue;
+                for (Node n : list) {
+                    long d2 = dist2(n, x, y);
+                    if (d2 <= bestD2) {
+                        bestD2 = d2;
+                        best = n;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Todos los nodos a distancia <= radius, ordenados del más cercano al más lejano
+    public List<Node> withinRadius(int x, int y, int radius) {
+        List<Node> out = new ArrayList<>();
+        long r2 = (long) radius * radius;
+        for (int cx = cell(x - radius), cx1 = cell(x + radius); cx <= cx1; cx++) {
+            for (int cy = cell(y - radius), cy1 = cell(y + radius); cy <= cy1; cy++) {
+                List<Node> list = cells.get(key(cx, cy));
+                if (list == null) continue;
+                for (Node n : list) {
+                    if (dist2(n, x, y) <= r2) out.add(n);
+                }
+            }
+        }
+        out.sort(Comparator.comparingLong(n -> dist2(n, x, y)));
+        return out;
+    }
+
+    // Los k nodos más cercanos: se revisan anillos de celdas alrededor del punto
+    // hasta que el anillo siguiente ya no puede mejorar al k-ésimo encontrado
+    public List<Node> kNearest(int x, int y, int k) {
+        if (k <= 0 || cells.isEmpty()) return List.of();
+        PriorityQueue<Node> worstFirst = new PriorityQueue<>(
+                Comparator.comparingLong((Node n) -> dist2(n, x, y)).reversed());
+        int ccx = cell(x), ccy = cell(y);
+        int maxRing = Math.max(Math.max(Math.abs(ccx - minCx), Math.abs(maxCx - ccx)),
+                               Math.max(Math.abs(ccy - minCy), Math.abs(maxCy - ccy)));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int cx = ccx - ring; cx <= ccx + ring; cx++) {
+                for (int cy = ccy - ring; cy <= ccy + ring; cy++) {
+                    if (Math.max(Math.abs(cx - ccx), Math.abs(cy - ccy)) != ring) continue;
+                    List<Node> list = cells.get(key(cx, cy));
+                    if (list == null) continue;
+                    for (Node n : list) {
+                        worstFirst.add(n);
+                        if (worstFirst.size() > k) worstFirst.poll();
+                    }
+                }
+            }
+            // toda celda del anillo ring+1 está al menos a ring*cellSize del punto
+            long reach = (long) ring * cellSize;
+            if (worstFirst.size() == k && reach * reach > dist2(worstFirst.peek(), x, y)) break;
+        }
+
+        List<Node> out = new ArrayList<>(worstFirst);
+        out.sort(Comparator.comparingLong(n -> dist2(n, x, y)));
+        return out;
+    }
+
+    private static long dist2(Node n, int x, int y) {
+        long dx = x - n.x, dy = y - n.y;
+        return dx * dx + dy * dy;
+    }
+}
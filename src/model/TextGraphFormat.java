@@ -0,0 +1,318 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Lector del formato de texto (mapa.cfg) sobre el archivo mapeado en memoria, byte a byte:
+// sin split por expresión regular ni strip() por línea. Una primera pasada secuencial
+// ubica las cabeceras (IMAGE, NODES, EDGES, BLOCKED, START, END) y corta las secciones en
+// tramos de líneas completas; los tramos se tokenizan en paralelo si se pide y después se
+// aplican al grafo en el orden del archivo, así el resultado es el mismo que leyendo en serie.
+final class TextGraphFormat {
+
+    // Tamaño de tramo al leer en paralelo; en serie cada sección es un único tramo
+    static final int CHUNK_BYTES = 1 << 20;
+    // A partir de este tamaño GraphIO.load reparte el análisis entre hilos
+    static final long PARALLEL_THRESHOLD = 4L << 20;
+
+    private TextGraphFormat() { }
+
+    // Error de formato con la línea (1 = primera) donde se produjo
+    static final class SyntaxError extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        final int line;
+        SyntaxError(int line, String message) {
+            super(message);
+            this.line = line;
+        }
+    }
+
+    private enum Section { NONE, NODES, EDGES, BLOCKED }
+
+    // Tramo de líneas consecutivas [from, to) de una misma sección y lo que se leyó de él
+    private static final class Chunk {
+        final Section section;
+        final int from, firstLine;
+        int to;
+        int count;
+        String[] a, b;          // id del nodo / extremos de la arista
+        int[] xs, ys;
+        double[] weights;       // NaN = peso por defecto
+        SyntaxError error;
+
+        Chunk(Section section, int from, int firstLine) {
+            this.section = section;
+            this.from = from;
+            this.firstLine = firstLine;
+        }
+    }
+
+    // Reemplaza el contenido de g y devuelve la ruta de la imagen de fondo (o null).
+    // Con parallel = true las secciones grandes se tokenizan por tramos en el ForkJoinPool común.
+    static String read(File file, Graph g, boolean parallel) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Archivo demasiado grande");
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+
+        // primera pasada: cabeceras y tramos
+        List<Chunk> chunks = new ArrayList<>();
+        String imagePath = null, start = null, end = null;
+        Section section = Section.NONE;
+        Chunk open = null;
+        int chunkLimit = parallel ? CHUNK_BYTES : Integer.MAX_VALUE;
+        Cursor c = new Cursor(buf, 0, buf.limit());
+        int line = 0;
+        while (c.hasLine()) {
+            line++;
+            int lineStart = c.pos;
+            if (!c.token() || c.byteAt(c.tokenStart) == '#') {
+                c.nextLine();
+                continue;
+            }
+            Keyword k = Keyword.of(c);
+            if (k == null) {
+                if (section != Section.NONE && (open == null || lineStart - open.from >= chunkLimit)) {
+                    if (open != null) open.to = lineStart;
+                    open = new Chunk(section, lineStart, line);
+                    chunks.add(open);
+                }
+                c.nextLine();
+                continue;
+            }
+            if (open != null) open.to = lineStart;
+            open = null;
+            switch (k) {
+                case IMAGE:
+                    imagePath = c.rest();
+                    section = Section.NONE;
+                    break;
+                case NODES:
+                    section = Section.NODES;
+                    break;
+                case EDGES:
+                    section = Section.EDGES;
+                    break;
+                case BLOCKED:
+                    section = Section.BLOCKED;
+                    break;
+                case START:
+                    if (c.token()) start = c.string();
+                    break;
+                case END:
+                    if (c.token()) end = c.string();
+                    break;
+            }
+            c.nextLine();
+        }
+        if (open != null) open.to = buf.limit();
+
+        if (parallel && chunks.size() > 1) {
+            ForkJoinPool.commonPool().submit(() -> IntStream.range(0, chunks.size()).parallel()
+                    .forEach(i -> parse(buf, chunks.get(i)))).join();
+        } else {
+            for (Chunk chunk : chunks) parse(buf, chunk);
+        }
+        for (Chunk chunk : chunks) {
+            if (chunk.error != null) throw chunk.error;
+        }
+
+        // aplicación en el orden del archivo
+        g.clear();
+        List<String> blockedIds = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            switch (chunk.section) {
+                case NODES:
+                    for (int i = 0; i < chunk.count; i++) g.addNode(new Node(chunk.a[i], chunk.xs[i], chunk.ys[i]));
+                    break;
+                case EDGES:
+                    for (int i = 0; i < chunk.count; i++) {
+                        if (Double.isNaN(chunk.weights[i])) g.connect(chunk.a[i], chunk.b[i]);
+                        else g.connect(chunk.a[i], chunk.b[i], chunk.weights[i]);
+                    }
+                    break;
+                case BLOCKED:
+                    blockedIds.addAll(Arrays.asList(chunk.a).subList(0, chunk.count));
+                    break;
+                default:
+                    break;
+            }
+        }
+        g.setBlocked(blockedIds, true);
+        if (start != null) g.setStart(start);
+        if (end != null) g.setEnd(end);
+        return imagePath;
+    }
+
+    private static void parse(ByteBuffer buf, Chunk chunk) {
+        Cursor c = new Cursor(buf, chunk.from, chunk.to);
+        int capacity = 16;
+        chunk.a = new String[capacity];
+        if (chunk.section == Section.NODES) {
+            chunk.xs = new int[capacity];
+            chunk.ys = new int[capacity];
+        } else if (chunk.section == Section.EDGES) {
+            chunk.b = new String[capacity];
+            chunk.weights = new double[capacity];
+        }
+        int line = chunk.firstLine - 1;
+        try {
+            while (c.hasLine()) {
+                line++;
+                if (!c.token() || c.byteAt(c.tokenStart) == '#') {
+                    c.nextLine();
+                    continue;
+                }
+                if (chunk.count == chunk.a.length) grow(chunk);
+                int i = chunk.count;
+                chunk.a[i] = c.string();
+                switch (chunk.section) {
+                    case NODES:
+                        if (!c.token()) throw new SyntaxError(line, "se esperaba 'id x y'");
+                        chunk.xs[i] = c.integer(line);
+                        if (!c.token()) throw new SyntaxError(line, "se esperaba 'id x y'");
+                        chunk.ys[i] = c.integer(line);
+                        break;
+                    case EDGES:
+                        if (!c.token()) throw new SyntaxError(line, "se esperaba 'origen destino [peso]'");
+                        chunk.b[i] = c.string();
+                        chunk.weights[i] = c.token() ? c.weight(line) : Double.NaN;
+                        break;
+                    default:
+                        break;
+                }
+                chunk.count++;
+                c.nextLine();
+            }
+        } catch (SyntaxError ex) {
+            chunk.error = ex;
+        }
+    }
+
+    private static void grow(Chunk chunk) {
+        int capacity = chunk.a.length * 2;
+        chunk.a = Arrays.copyOf(chunk.a, capacity);
+        if (chunk.xs != null) {
+            chunk.xs = Arrays.copyOf(chunk.xs, capacity);
+            chunk.ys = Arrays.copyOf(chunk.ys, capacity);
+        }
+        if (chunk.b != null) {
+            chunk.b = Arrays.copyOf(chunk.b, capacity);
+            chunk.weights = Arrays.copyOf(chunk.weights, capacity);
+        }
+    }
+
+    private enum Keyword {
+        IMAGE, NODES, EDGES, BLOCKED, START, END;
+
+        private final byte[] bytes = name().getBytes(StandardCharsets.US_ASCII);
+
+        // Palabra clave si el token actual coincide entera con una, o null
+        static Keyword of(Cursor c) {
+            int len = c.tokenEnd - c.tokenStart;
+            for (Keyword k : values()) {
+                if (k.bytes.length != len) continue;
+                int i = 0;
+                while (i < len && c.byteAt(c.tokenStart + i) == k.bytes[i]) i++;
+                if (i == len) return k;
+            }
+            return null;
+        }
+    }
+
+    // Recorre [pos, end) línea a línea; token() avanza al siguiente token de la línea
+    // actual sin pasar del '\n'
+    private static final class Cursor {
+        final ByteBuffer buf;
+        final int end;
+        int pos;
+        int tokenStart, tokenEnd;
+        byte[] scratch = new byte[64];
+
+        Cursor(ByteBuffer buf, int from, int end) {
+            this.buf = buf;
+            this.pos = from;
+            this.end = end;
+        }
+
+        boolean hasLine() { return pos < end; }
+
+        byte byteAt(int i) { return buf.get(i); }
+
+        boolean token() {
+            while (pos < end && isBlank(buf.get(pos))) pos++;
+            if (pos >= end || buf.get(pos) == '\n') return false;
+            tokenStart = pos;
+            while (pos < end && !isBlank(buf.get(pos)) && buf.get(pos) != '\n') pos++;
+            tokenEnd = pos;
+            return true;
+        }
+
+        void nextLine() {
+            while (pos < end && buf.get(pos) != '\n') pos++;
+            if (pos < end) pos++;
+        }
+
+        // Resto de la línea sin espacios a los lados (la ruta de IMAGE puede tenerlos)
+        String rest() {
+            int s = pos, e = pos;
+            while (e < end && buf.get(e) != '\n') e++;
+            pos = e;
+            while (s < e && isBlank(buf.get(s))) s++;
+            while (e > s && isBlank(buf.get(e - 1))) e--;
+            return decode(s, e);
+        }
+
+        String string() { return decode(tokenStart, tokenEnd); }
+
+        private String decode(int s, int e) {
+            int len = e - s;
+            if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+            buf.get(s, scratch, 0, len);
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        int integer(int line) throws SyntaxError {
+            int i = tokenStart;
+            boolean negative = buf.get(i) == '-';
+            if (negative || buf.get(i) == '+') i++;
+            if (i == tokenEnd) throw new SyntaxError(line, "'" + string() + "' no es un entero");
+            long value = 0;
+            for (; i < tokenEnd; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) throw new SyntaxError(line, "'" + string() + "' no es un entero");
+                value = value * 10 + d;
+                if (value > Integer.MAX_VALUE + 1L) throw new SyntaxError(line, "'" + string() + "' fuera de rango");
+            }
+            if (negative) value = -value;
+            if (value > Integer.MAX_VALUE) throw new SyntaxError(line, "'" + string() + "' fuera de rango");
+            return (int) value;
+        }
+
+        // Los pesos manuales son pocos: se delega en Double.parseDouble
+        double weight(int line) throws SyntaxError {
+            String s = string();
+            double w;
+            try {
+                w = Double.parseDouble(s);
+            } catch (NumberFormatException ex) {
+                throw new SyntaxError(line, "'" + s + "' no es un peso");
+            }
+            if (!(w > 0) || Double.isInfinite(w)) throw new SyntaxError(line, "peso inválido: " + s);
+            return w;
+        }
+
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package model;
 
+import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
+// Estadísticas de las ejecuciones, seguras entre hilos y sin bloqueos. Los registros
+// individuales van a un búfer circular acotado (los últimos getCapacity(), configurable con
+// -Dtimestats.capacity=N); además cada algoritmo acumula un histograma de tiempos en ns y
+// los nodos expandidos, que no se pierden al girar el búfer y ocupan memoria fija.
 public class TimeStats {
     
     public static class ExecutionRecord {
@@ -13,19 +22,25 @@ public class TimeStats {
         public final String end;
         public final int nodes;
         public final int edges;
+        public final int blocked;
         public final long timeMs;
+        public final long timeNanos;
+        public final int expanded;          // nodos expandidos; -1 si no se conoce
         public final boolean foundPath;
         public final int pathLength;
         
-        public ExecutionRecord(String algorithm, String start, String end, int nodes, 
-                              int edges, long timeMs, boolean foundPath, int pathLength) {
+        public ExecutionRecord(String algorithm, String start, String end, GraphStats stats,
+                              long timeNanos, int expanded, boolean foundPath, int pathLength) {
             this.timestamp = LocalDateTime.now();
             this.algorithm = algorithm;
             this.start = start;
             this.end = end;
-            this.nodes = nodes;
-            this.edges = edges;
-            this.timeMs = timeMs;
+            this.nodes = stats.nodes;
+            this.edges = stats.edges;
+            this.blocked = stats.blocked;
+            this.timeMs = timeNanos / 1_000_000;
+            this.timeNanos = timeNanos;
+            this.expanded = expanded;
             this.foundPath = foundPath;
             this.pathLength = pathLength;
         }
@@ -35,58 +50,173 @@ public class TimeStats {
         }
     }
     
-    private static final List<ExecutionRecord> records = new ArrayList<>();
+    // Acumulado de un algoritmo desde el último clear()
+    public static final class AlgorithmStats {
+        public final String algorithm;
+        public final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder found = new LongAdder();
+        private final LongAdder expandedSum = new LongAdder();
+        private final LongAdder expandedRuns = new LongAdder();
+
+        AlgorithmStats(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        void add(ExecutionRecord r) {
+            latency.record(r.timeNanos);
+            if (r.foundPath) found.increment();
+            if (r.expanded >= 0) {
+                expandedSum.add(r.expanded);
+                expandedRuns.increment();
+            }
+        }
+
+        public long runs() { return latency.count(); }
+
+        public long found() { return found.sum(); }
+
+        // Media de nodos expandidos entre las ejecuciones que lo informaron; -1 si ninguna
+        public double meanExpanded() {
+            long n = expandedRuns.sum();
+            return n == 0 ? -1 : (double) expandedSum.sum() / n;
+        }
+    }
+
+    // Búfer circular: la ranura seq % longitud guarda el registro número seq. Quien escribe
+    // toma su número con un incremento atómico; quien lee descarta las ranuras que ya
+    // guardan un número distinto del esperado (sobrescritas o aún sin escribir).
+    private record Slot(long seq, ExecutionRecord record) { }
+
+    private static final class Ring {
+        final AtomicReferenceArray<Slot> slots;
+        final AtomicLong next = new AtomicLong();
+
+        Ring(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("timestats.capacity", 10_000);
+    private static volatile Ring ring = new Ring(Math.max(1, DEFAULT_CAPACITY));
+    private static final ConcurrentHashMap<String, AlgorithmStats> byAlgorithm = new ConcurrentHashMap<>();
+
+    // Registro de tiempos en data/times.csv, compartido por toda la aplicación; se crea
+    // con la primera línea. Rota a partir de 8 MB y conserva 3 archivos anteriores.
+    public static final String TIMES_HEADER = "timestamp,algorithm,start,end,nodes,edges,time_ms";
+    private static final int TIMES_QUEUE = 4096;
+    private static final long TIMES_MAX_BYTES = 8L << 20;
+    private static final int TIMES_KEEP = 3;
+    private static CsvAppender timesLog = null;
+
+    // Contadores de la caché de rutas (RouteCache)
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+    private static final AtomicLong cacheEvictions = new AtomicLong();
     
     public static void addRecord(ExecutionRecord record) {
-        records.add(record);
+        Ring r = ring;
+        long seq = r.next.getAndIncrement();
+        r.slots.set((int) (seq % r.slots.length()), new Slot(seq, record));
+        byAlgorithm.computeIfAbsent(record.algorithm, AlgorithmStats::new).add(record);
     }
     
+    // Los registros que siguen en el búfer, del más viejo al más nuevo
     public static List<ExecutionRecord> getAllRecords() {
-        return new ArrayList<>(records);
+        return getRecentRecords(Integer.MAX_VALUE);
     }
     
     public static List<ExecutionRecord> getRecentRecords(int count) {
-        int size = records.size();
-        if (size <= count) return new ArrayList<>(records);
-        return new ArrayList<>(records.subList(size - count, size));
+        Ring r = ring;
+        long end = r.next.get();
+        long from = Math.max(0, end - Math.min(count, r.slots.length()));
+        List<ExecutionRecord> out = new ArrayList<>((int) (end - from));
+        for (long seq = from; seq < end; seq++) {
+            Slot slot = r.slots.get((int) (seq % r.slots.length()));
+            if (slot != null && slot.seq() == seq) out.add(slot.record());
+        }
+        return out;
+    }
+
+    public static int getCapacity() {
+        return ring.slots.length();
+    }
+
+    // Cambia el tamaño del búfer; conserva los registros más recientes que quepan (uno que
+    // llegue justo durante el cambio puede quedar fuera)
+    public static synchronized void setCapacity(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacidad inválida: " + capacity);
+        Ring fresh = new Ring(capacity);
+        for (ExecutionRecord rec : getRecentRecords(capacity)) {
+            long seq = fresh.next.getAndIncrement();
+            fresh.slots.set((int) seq, new Slot(seq, rec));
+        }
+        ring = fresh;
+    }
+
+    // Acumulados por algoritmo, en orden alfabético
+    public static List<AlgorithmStats> getAlgorithmStats() {
+        List<AlgorithmStats> out = new ArrayList<>(byAlgorithm.values());
+        out.sort(Comparator.comparing(a -> a.algorithm));
+        return out;
+    }
+
+    public static AlgorithmStats getAlgorithmStats(String algorithm) {
+        return byAlgorithm.get(algorithm);
     }
     
     public static void clear() {
-        records.clear();
+        ring = new Ring(getCapacity());
+        byAlgorithm.clear();
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        cacheEvictions.set(0);
+    }
+
+    public static synchronized CsvAppender timesLog() {
+        if (timesLog == null) {
+            timesLog = new CsvAppender(new File("data", "times.csv"), TIMES_HEADER,
+                    TIMES_QUEUE, TIMES_MAX_BYTES, TIMES_KEEP);
+        }
+        return timesLog;
+    }
+
+    // Encola una línea para times.csv; false si no se va a escribir (ver CsvAppender.append)
+    public static boolean logTime(String algorithm, String start, String end, GraphStats stats, long ms) {
+        String ts = LocalDateTime.now().toString();
+        return timesLog().append(ts + "," + algorithm + "," + start + "," + end + ","
+                + stats.nodes + "," + stats.edges + "," + ms);
+    }
+
+    static void recordCacheHit() { cacheHits.incrementAndGet(); }
+    static void recordCacheMiss() { cacheMisses.incrementAndGet(); }
+    static void recordCacheEvictions(int n) { if (n > 0) cacheEvictions.addAndGet(n); }
+
+    public static long getCacheHits() { return cacheHits.get(); }
+    public static long getCacheMisses() { return cacheMisses.get(); }
+    public static long getCacheEvictions() { return cacheEvictions.get(); }
+
+    public static String getCacheSummary() {
+        long hits = cacheHits.get(), misses = cacheMisses.get();
+        long total = hits + misses;
+        double ratio = (total == 0) ? 0 : 100.0 * hits / total;
+        return String.format("Caché de rutas: %d aciertos | %d fallos | %d desalojos | %.0f%% acierto",
+                hits, misses, cacheEvictions.get(), ratio);
     }
     
+    // Resumen por algoritmo ordenado por mediana; el primero es el más rápido
     public static String getComparison() {
-        if (records.size() < 2) return "Ejecuta ambos algoritmos para comparar";
-        
-        ExecutionRecord lastBFS = null;
-        ExecutionRecord lastDFS = null;
-        
-        for (int i = records.size() - 1; i >= 0; i--) {
-            ExecutionRecord r = records.get(i);
-            if (lastBFS == null && r.algorithm.equals("BFS")) lastBFS = r;
-            if (lastDFS == null && r.algorithm.equals("DFS")) lastDFS = r;
-            if (lastBFS != null && lastDFS != null) break;
-        }
-        
-        if (lastBFS == null || lastDFS == null) {
-            return "Ejecuta ambos algoritmos para comparar";
-        }
-        
-        StringBuilder sb = new StringBuilder();
-        sb.append("Última Comparación BFS vs DFS:\n");
-        sb.append(String.format("BFS: %d ms | Ruta: %d nodos\n", 
-            lastBFS.timeMs, lastBFS.pathLength));
-        sb.append(String.format("DFS: %d ms | Ruta: %d nodos\n", 
-            lastDFS.timeMs, lastDFS.pathLength));
-        
-        if (lastBFS.timeMs < lastDFS.timeMs) {
-            sb.append("→ BFS fue más rápido\n");
-        } else if (lastDFS.timeMs < lastBFS.timeMs) {
-            sb.append("→ DFS fue más rápido\n");
-        } else {
-            sb.append("→ Ambos tardaron lo mismo\n");
+        List<AlgorithmStats> stats = getAlgorithmStats();
+        if (stats.isEmpty()) return "Ejecuta algún algoritmo para comparar";
+        stats.sort(Comparator.comparingLong(a -> a.latency.percentile(50)));
+
+        StringBuilder sb = new StringBuilder("Comparación por algoritmo (p50 / p99 / nodos expandidos):\n");
+        for (AlgorithmStats a : stats) {
+            double expanded = a.meanExpanded();
+            sb.append(String.format("%-9s %4d ejec. | p50 %-9s | p99 %-9s | %s nodos\n", a.algorithm, a.runs(),
+                    LatencyHistogram.format(a.latency.percentile(50)), LatencyHistogram.format(a.latency.percentile(99)),
+                    expanded < 0 ? "-" : String.format("%.0f", expanded)));
         }
-        
+        if (stats.size() > 1) sb.append("→ ").append(stats.get(0).algorithm).append(" tiene la mediana más baja\n");
         return sb.toString();
     }
 }
\ No newline at end of file
@@ -24,7 +24,14 @@ public class MainFrame extends JFrame {
             controller::onToolChanged,
             controller::onRunBFS,
             controller::onRunDFS,
+            controller::onRunBidirectionalBFS,
+            controller::onRunDijkstra,
+            controller::onRunAStar,
+            controller::onRunCH,
+            controller::onRunALT,
+            controller::onToggleAutoReroute,
             controller::onToggleMode,
+            controller::onToggleComponents,
             this::showTimeStats,
             () -> controller.onSave(new File("data/mapa.cfg")),
             () -> controller.onLoad(new File("data/mapa.cfg")),
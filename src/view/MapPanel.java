@@ -5,6 +5,7 @@ import model.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 import java.util.List;
 import java.util.*;
 
@@ -17,6 +18,15 @@ public class MapPanel extends JPanel {
     private SearchResult lastResult = null;
     private String toolHint = "";
     private String statusHint = "";
+    private boolean showComponents = false;
+    // Exploración que llega por lotes mientras corre la búsqueda (mapas grandes): nodos
+    // visitados (x, y) y aristas recorridas (x1, y1, x2, y2). Se pintan en una capa aparte
+    // para que cada lote nuevo dibuje solo lo suyo en lugar de todo lo anterior.
+    private int[] liveNodes = new int[0];
+    private int liveNodeLen = 0;
+    private int[] liveEdges = new int[0];
+    private int liveEdgeLen = 0;
+    private BufferedImage liveLayer = null;
 
     public MapPanel(Graph graph) {
         this.graph = graph;
@@ -59,6 +69,64 @@ public class MapPanel extends JPanel {
         repaint();
     }
 
+    public void clearExploration() {
+        liveNodes = new int[0];
+        liveEdges = new int[0];
+        liveNodeLen = liveEdgeLen = 0;
+        liveLayer = null;
+        repaint();
+    }
+
+    // nodesXY[0..nodeLen) y edgesXY[0..edgeLen) en el formato de los campos live*
+    public void addExploration(int[] nodesXY, int nodeLen, int[] edgesXY, int edgeLen) {
+        int nodeFrom = liveNodeLen, edgeFrom = liveEdgeLen;
+        liveNodes = append(liveNodes, liveNodeLen, nodesXY, nodeLen);
+        liveNodeLen += nodeLen;
+        liveEdges = append(liveEdges, liveEdgeLen, edgesXY, edgeLen);
+        liveEdgeLen += edgeLen;
+        if (liveLayer != null) paintLive(liveLayer, nodeFrom, edgeFrom);
+        repaint();
+    }
+
+    public int getExploredCount() {
+        return liveNodeLen / 2;
+    }
+
+    private static int[] append(int[] dst, int len, int[] src, int n) {
+        if (len + n > dst.length) dst = Arrays.copyOf(dst, Math.max(len + n, 2 * dst.length));
+        System.arraycopy(src, 0, dst, len, n);
+        return dst;
+    }
+
+    // La capa se rehace desde los arreglos solo si cambió el tamaño del panel
+    private BufferedImage liveLayer() {
+        int w = Math.max(1, getWidth()), h = Math.max(1, getHeight());
+        if (liveLayer == null || liveLayer.getWidth() != w || liveLayer.getHeight() != h) {
+            liveLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            paintLive(liveLayer, 0, 0);
+        }
+        return liveLayer;
+    }
+
+    private void paintLive(BufferedImage img, int nodeFrom, int edgeFrom) {
+        Graphics2D g = img.createGraphics();
+        g.setStroke(new BasicStroke(2.0f));
+        g.setColor(new Color(70, 130, 255, 200));
+        for (int i = edgeFrom; i < liveEdgeLen; i += 4) {
+            g.drawLine(liveEdges[i], liveEdges[i + 1], liveEdges[i + 2], liveEdges[i + 3]);
+        }
+        g.setColor(new Color(0, 220, 255, 180));
+        for (int i = nodeFrom; i < liveNodeLen; i += 2) {
+            g.fillRect(liveNodes[i] - 1, liveNodes[i + 1] - 1, 3, 3);
+        }
+        g.dispose();
+    }
+
+    public void setShowComponents(boolean show) {
+        this.showComponents = show;
+        repaint();
+    }
+
     public void setToolHint(String hint) {
         this.toolHint = hint;
         repaint();
@@ -117,13 +185,10 @@ public class MapPanel extends JPanel {
         if (mode == VisualizationMode.EXPLORATION) {
             g.setColor(new Color(255, 230, 128, 100));
             g.setStroke(edgeStroke);
-            for (var e : graph.getAdjacency().entrySet()) {
-                Node a = graph.getNode(e.getKey());
-                for (String vid : e.getValue()) {
-                    Node b = graph.getNode(vid);
-                    if (a == null || b == null)
-                        continue;
-                    drawEdge(g, a, b);
+            for (int u = 0, n = graph.nodeCount(); u < n; u++) {
+                Node a = graph.nodeAt(u);
+                for (int k = 0, d = graph.degree(u); k < d; k++) {
+                    drawEdge(g, a, graph.nodeAt(graph.neighbor(u, k)));
                 }
             }
 
@@ -162,7 +227,7 @@ public class MapPanel extends JPanel {
             for (Node n : graph.getNodes()) {
                 boolean isStart = n.id.equals(graph.getStart());
                 boolean isEnd = n.id.equals(graph.getEnd());
-                boolean isBlocked = n.blocked;
+                boolean isBlocked = graph.isBlocked(n.id);
 
                 Color fill;
                 Color border;
@@ -176,6 +241,9 @@ public class MapPanel extends JPanel {
                 } else if (isEnd) {
                     fill = endColor;
                     border = nodeBorder;
+                } else if (showComponents) {
+                    fill = componentColor(graph.componentOf(n.id));
+                    border = nodeBorder;
                 } else {
                     fill = nodeColor;
                     border = nodeBorder;
@@ -189,7 +257,7 @@ public class MapPanel extends JPanel {
                 if (visited != null && !visited.isEmpty()) {
                     for (String id : visited) {
                         Node v = graph.getNode(id);
-                        if (v != null && !v.blocked) {
+                        if (v != null && !graph.isBlocked(id)) {
                             int rVisited = 5;
 
                             g.setColor(new Color(0, 255, 255, 60));
@@ -206,6 +274,10 @@ public class MapPanel extends JPanel {
                 }
             }
 
+            if (liveNodeLen > 0 || liveEdgeLen > 0) {
+                g.drawImage(liveLayer(), 0, 0, null);
+            }
+
         } else {
             // Modo FINAL_ROUTE: solo mostrar camino final
             if (!routeEdges.isEmpty()) {
@@ -294,21 +366,26 @@ public class MapPanel extends JPanel {
         if (lastResult != null && lastResult.getExploredEdges() != null) {
             g.setFont(getFont().deriveFont(Font.ITALIC, 9f));
             g.setColor(new Color(200, 200, 200));
-            g.drawString("Caminos explorados: " + lastResult.getExploredEdges().size(), x + 10, y + 98);
+            int explored = Math.max(lastResult.getExploredEdges().size(), liveEdgeLen / 4);
+            g.drawString("Caminos explorados: " + explored, x + 10, y + 98);
         }
     }
 
+    // Tono distinto por componente: la razón áurea reparte bien etiquetas consecutivas
+    private Color componentColor(int component) {
+        float hue = (float) ((component * 0.618033988749895) % 1.0);
+        return Color.getHSBColor(hue, 0.65f, 0.95f);
+    }
+
     private void drawEdge(Graphics2D g, Node a, Node b) {
         g.draw(new Line2D.Double(a.x, a.y, b.x, b.y));
     }
 
     private void drawRouteEdges(Graphics2D g, Set<String> routeEdges) {
-        for (var e : graph.getAdjacency().entrySet()) {
-            Node a = graph.getNode(e.getKey());
-            for (String vid : e.getValue()) {
-                Node b = graph.getNode(vid);
-                if (a == null || b == null)
-                    continue;
+        for (int u = 0, n = graph.nodeCount(); u < n; u++) {
+            Node a = graph.nodeAt(u);
+            for (int k = 0, d = graph.degree(u); k < d; k++) {
+                Node b = graph.nodeAt(graph.neighbor(u, k));
                 if (routeEdges.contains(edgeKey(a.id, b.id))) {
                     drawEdge(g, a, b);
                 }
@@ -1,5 +1,6 @@
 package view;
 
+import model.LatencyHistogram;
 import model.TimeStats;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -9,12 +10,12 @@ import java.util.List;
 public class TimeStatsDialog extends JDialog {
     
     public TimeStatsDialog(JFrame parent) {
-        super(parent, "Estadísticas de Tiempo - BFS vs DFS", true);
+        super(parent, "Estadísticas de Tiempo por Algoritmo", true);
         setLayout(new BorderLayout(10, 10));
         
-        // Tabla de resultados
-        String[] columns = {"Timestamp", "Algoritmo", "Inicio", "Destino", 
-                           "Nodos", "Aristas", "Tiempo (ms)", "Ruta", "Long. Ruta"};
+        // Tabla de acumulados por algoritmo (no depende de cuántos registros guarde el búfer)
+        String[] columns = {"Algoritmo", "Ejecuciones", "Con ruta", "p50", "p90",
+                           "p99", "Máx", "Nodos expandidos (media)"};
         DefaultTableModel model = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -22,38 +23,37 @@ public class TimeStatsDialog extends JDialog {
             }
         };
         
-        List<TimeStats.ExecutionRecord> records = TimeStats.getAllRecords();
-        for (TimeStats.ExecutionRecord r : records) {
+        List<TimeStats.AlgorithmStats> stats = TimeStats.getAlgorithmStats();
+        for (TimeStats.AlgorithmStats a : stats) {
+            double expanded = a.meanExpanded();
             model.addRow(new Object[]{
-                r.getFormattedTimestamp(),
-                r.algorithm,
-                r.start,
-                r.end,
-                r.nodes,
-                r.edges,
-                r.timeMs,
-                r.foundPath ? "Sí" : "No",
-                r.foundPath ? r.pathLength : "-"
+                a.algorithm,
+                a.runs(),
+                a.found(),
+                LatencyHistogram.format(a.latency.percentile(50)),
+                LatencyHistogram.format(a.latency.percentile(90)),
+                LatencyHistogram.format(a.latency.percentile(99)),
+                LatencyHistogram.format(a.latency.max()),
+                expanded < 0 ? "-" : String.format("%.0f", expanded)
             });
         }
         
         JTable table = new JTable(model);
         table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
-        table.getColumnModel().getColumn(0).setPreferredWidth(150);
+        table.getColumnModel().getColumn(0).setPreferredWidth(90);
         table.getColumnModel().getColumn(1).setPreferredWidth(80);
-        table.getColumnModel().getColumn(2).setPreferredWidth(60);
-        table.getColumnModel().getColumn(3).setPreferredWidth(60);
-        table.getColumnModel().getColumn(4).setPreferredWidth(60);
-        table.getColumnModel().getColumn(5).setPreferredWidth(60);
+        table.getColumnModel().getColumn(2).setPreferredWidth(70);
+        table.getColumnModel().getColumn(3).setPreferredWidth(90);
+        table.getColumnModel().getColumn(4).setPreferredWidth(90);
+        table.getColumnModel().getColumn(5).setPreferredWidth(90);
         table.getColumnModel().getColumn(6).setPreferredWidth(90);
-        table.getColumnModel().getColumn(7).setPreferredWidth(60);
-        table.getColumnModel().getColumn(8).setPreferredWidth(90);
+        table.getColumnModel().getColumn(7).setPreferredWidth(170);
         
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setPreferredSize(new Dimension(800, 300));
         
         // Panel de comparación
-        JTextArea comparisonArea = new JTextArea(TimeStats.getComparison());
+        JTextArea comparisonArea = new JTextArea(TimeStats.getComparison() + "\n" + TimeStats.getCacheSummary());
         comparisonArea.setEditable(false);
         comparisonArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         comparisonArea.setBackground(new Color(245, 245, 245));
@@ -64,6 +64,7 @@ public class TimeStatsDialog extends JDialog {
         
         // Panel de botones
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        // El CSV lleva las ejecuciones individuales que siguen en el búfer (las últimas)
         JButton exportButton = new JButton("Exportar CSV");
         exportButton.addActionListener(e -> exportToCSV());
         
@@ -109,9 +110,9 @@ public class TimeStatsDialog extends JDialog {
         if (userSelection == JFileChooser.APPROVE_OPTION) {
             java.io.File file = fileChooser.getSelectedFile();
             try (java.io.PrintWriter pw = new java.io.PrintWriter(file)) {
-                pw.println("timestamp,algorithm,start,end,nodes,edges,time_ms,found_path,path_length");
+                pw.println("timestamp,algorithm,start,end,nodes,edges,time_ms,time_ns,expanded,found_path,path_length");
                 for (TimeStats.ExecutionRecord r : TimeStats.getAllRecords()) {
-                    pw.printf("%s,%s,%s,%s,%d,%d,%d,%s,%d%n",
+                    pw.printf("%s,%s,%s,%s,%d,%d,%d,%d,%d,%s,%d%n",
                         r.getFormattedTimestamp(),
                         r.algorithm,
                         r.start,
@@ -119,6 +120,8 @@ public class TimeStatsDialog extends JDialog {
                         r.nodes,
                         r.edges,
                         r.timeMs,
+                        r.timeNanos,
+                        r.expanded,
                         r.foundPath,
                         r.foundPath ? r.pathLength : 0
                     );
@@ -17,7 +17,14 @@ public class Toolbar extends JPanel {
         Consumer<Tool> onToolChange,
         Runnable onRunBFS,
         Runnable onRunDFS,
+        Runnable onRunBiBFS,
+        Runnable onRunDijkstra,
+        Runnable onRunAStar,
+        Runnable onRunCH,
+        Runnable onRunALT,
+        Consumer<Boolean> onToggleAutoReroute,
         Runnable onToggleMode,
+        Consumer<Boolean> onToggleComponents,
         Runnable onShowStats,
         Runnable onSave,
         Runnable onLoad,
@@ -61,6 +68,52 @@ public class Toolbar extends JPanel {
         dfs.addActionListener(e -> onRunDFS.run());
         add(dfs);
 
+        JButton biBfs = new JButton("▶ BFS Bidireccional");
+        biBfs.setToolTipText("BFS desde Inicio y Destino a la vez - expande la frontera más pequeña");
+        biBfs.setBackground(new Color(40, 160, 120));
+        biBfs.setForeground(Color.WHITE);
+        biBfs.setFocusPainted(false);
+        biBfs.addActionListener(e -> onRunBiBFS.run());
+        add(biBfs);
+
+        JButton dijkstra = new JButton("▶ Dijkstra");
+        dijkstra.setToolTipText("Camino más corto por distancia real (pesos de las aristas)");
+        dijkstra.setBackground(new Color(200, 130, 40));
+        dijkstra.setForeground(Color.WHITE);
+        dijkstra.setFocusPainted(false);
+        dijkstra.addActionListener(e -> onRunDijkstra.run());
+        add(dijkstra);
+
+        JButton astar = new JButton("▶ A*");
+        astar.setToolTipText("Dijkstra guiado por la distancia en línea recta al destino");
+        astar.setBackground(new Color(170, 70, 170));
+        astar.setForeground(Color.WHITE);
+        astar.setFocusPainted(false);
+        astar.addActionListener(e -> onRunAStar.run());
+        add(astar);
+
+        JButton ch = new JButton("▶ CH");
+        ch.setToolTipText("Jerarquía de contracción - preprocesa una vez, consultas casi instantáneas");
+        ch.setBackground(new Color(90, 90, 90));
+        ch.setForeground(Color.WHITE);
+        ch.setFocusPainted(false);
+        ch.addActionListener(e -> onRunCH.run());
+        add(ch);
+
+        JButton alt = new JButton("▶ ALT");
+        alt.setToolTipText("A* con landmarks y desigualdad triangular (tablas guardadas junto al mapa)");
+        alt.setBackground(new Color(120, 90, 40));
+        alt.setForeground(Color.WHITE);
+        alt.setFocusPainted(false);
+        alt.addActionListener(e -> onRunALT.run());
+        add(alt);
+
+        JToggleButton reroute = new JToggleButton("🔄 Re-ruteo automático");
+        reroute.setToolTipText("Recalcula solo la parte afectada de la ruta (LPA*) al bloquear o desbloquear nodos");
+        reroute.setFocusPainted(false);
+        reroute.addActionListener(e -> onToggleAutoReroute.accept(reroute.isSelected()));
+        add(reroute);
+
         add(createSeparator());
 
         // VISUALIZACIÓN
@@ -76,6 +129,12 @@ public class Toolbar extends JPanel {
             updateModeButtonText();
         });
         add(modeButton);
+
+        JToggleButton components = new JToggleButton("🎨 Componentes");
+        components.setToolTipText("Colorea cada componente conexa (sin nodos bloqueados) con un color distinto");
+        components.setFocusPainted(false);
+        components.addActionListener(e -> onToggleComponents.accept(components.isSelected()));
+        add(components);
         
         JButton stats = new JButton("📊 Ver Tiempos");
         stats.setToolTipText("Ver estadísticas de ejecución BFS vs DFS");